@@ -0,0 +1,146 @@
+package com.example.robotmaze;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.opencv.android.OpenCVLoader;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.FlatContours;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.imgproc.Moments;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link FlatContours} shape helpers against the native Imgproc calls they replace, on contours
+ * traced from drawn shapes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FlatContoursTest {
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        assertTrue(OpenCVLoader.initLocal());
+    }
+
+    @Test
+    public void matchesNativeShapeFunctions() {
+        for (int seed = 1; seed <= 3; seed++) {
+            Mat binary = shapes(seed);
+            List<MatOfPoint> expected = new ArrayList<>();
+            Mat hierarchy = new Mat();
+            Imgproc.findContours(binary, expected, hierarchy, Imgproc.RETR_LIST, Imgproc.CHAIN_APPROX_SIMPLE);
+            FlatContours actual = Imgproc.findContoursFlat(binary, hierarchy, Imgproc.RETR_LIST, Imgproc.CHAIN_APPROX_SIMPLE);
+            assertEquals(expected.size(), actual.size());
+
+            for (int i = 0; i < actual.size(); i++) {
+                String label = "seed " + seed + " contour " + i;
+                MatOfPoint contour = expected.get(i);
+                assertArrayEquals(label, contour.toArray(), actual.toArray(i));
+                assertEquals(label, Imgproc.contourArea(contour), actual.area(i), 1e-9);
+                assertMomentsEqual(label, Imgproc.moments(contour), actual.moments(i));
+
+                MatOfPoint2f curve = new MatOfPoint2f(contour.toArray());
+                for (boolean closed : new boolean[]{true, false}) {
+                    double peri = Imgproc.arcLength(curve, closed);
+                    assertEquals(label, peri, actual.arcLength(i, closed), 1e-9);
+                    // 0.02 * perimeter is the tolerance findMazeCorners uses.
+                    for (double epsilon : new double[]{1, 3, 0.02 * peri}) {
+                        MatOfPoint2f approx = new MatOfPoint2f();
+                        Imgproc.approxPolyDP(curve, approx, epsilon, closed);
+                        assertArrayEquals(label + " eps " + epsilon + (closed ? " closed" : " open"),
+                                toInts(approx), actual.approxPolyDP(i, epsilon, closed));
+                        approx.release();
+                    }
+                }
+                curve.release();
+                contour.release();
+            }
+            binary.release();
+            hierarchy.release();
+        }
+    }
+
+    @Test
+    public void findsFourCornersOfWarpedOutline() {
+        Mat binary = Mat.zeros(1200, 1200, CvType.CV_8UC1);
+        MatOfPoint outline = new MatOfPoint(new Point(60, 40), new Point(1150, 90), new Point(1120, 1180), new Point(30, 1130));
+        Imgproc.fillPoly(binary, Arrays.asList(outline), Scalar.all(255));
+        FlatContours contours = Imgproc.findContoursFlat(binary, new Mat(), Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+        assertEquals(1, contours.size());
+
+        int[] approx = contours.approxPolyDP(0, 0.02 * contours.arcLength(0, true), true);
+        assertEquals(8, approx.length);
+        outline.release();
+        binary.release();
+    }
+
+    /** Filled quadrilaterals, ellipses and blobs of the sizes the maze outline and markers produce. */
+    private static Mat shapes(int seed) {
+        Random random = new Random(seed);
+        Mat binary = Mat.zeros(1200, 1200, CvType.CV_8UC1);
+        for (int k = 0; k < 12; k++) {
+            double cx = 100 + random.nextInt(1000);
+            double cy = 100 + random.nextInt(1000);
+            double r = 5 + random.nextInt(150);
+            switch (k % 3) {
+                case 0: {
+                    Point[] quad = new Point[4];
+                    for (int c = 0; c < 4; c++) {
+                        double angle = Math.PI / 2 * c + random.nextDouble() * 0.6;
+                        quad[c] = new Point(cx + r * Math.cos(angle), cy + r * Math.sin(angle));
+                    }
+                    MatOfPoint polygon = new MatOfPoint(quad);
+                    Imgproc.fillPoly(binary, Arrays.asList(polygon), Scalar.all(255));
+                    polygon.release();
+                    break;
+                }
+                case 1:
+                    Imgproc.ellipse(binary, new Point(cx, cy), new Size(r, r * (0.3 + random.nextDouble())),
+                            random.nextInt(180), 0, 360, Scalar.all(255), -1);
+                    break;
+                default:
+                    Imgproc.circle(binary, new Point(cx, cy), (int) (r / 4) + 1, Scalar.all(255), -1);
+                    break;
+            }
+        }
+        return binary;
+    }
+
+    private static void assertMomentsEqual(String label, Moments expected, Moments actual) {
+        double[] e = {expected.m00, expected.m10, expected.m01, expected.m20, expected.m11, expected.m02,
+                expected.m30, expected.m21, expected.m12, expected.m03,
+                expected.get_mu20(), expected.get_mu11(), expected.get_mu02(),
+                expected.get_nu20(), expected.get_nu11(), expected.get_nu02()};
+        double[] a = {actual.m00, actual.m10, actual.m01, actual.m20, actual.m11, actual.m02,
+                actual.m30, actual.m21, actual.m12, actual.m03,
+                actual.get_mu20(), actual.get_mu11(), actual.get_mu02(),
+                actual.get_nu20(), actual.get_nu11(), actual.get_nu02()};
+        for (int k = 0; k < e.length; k++) {
+            assertEquals(label + " moment " + k, e[k], a[k], 1e-9 * Math.max(1, Math.abs(e[k])));
+        }
+    }
+
+    private static int[] toInts(MatOfPoint2f curve) {
+        Point[] points = curve.toArray();
+        int[] result = new int[points.length * 2];
+        for (int k = 0; k < points.length; k++) {
+            result[2 * k] = (int) points[k].x;
+            result[2 * k + 1] = (int) points[k].y;
+        }
+        return result;
+    }
+}
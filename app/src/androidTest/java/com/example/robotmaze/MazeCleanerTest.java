@@ -0,0 +1,130 @@
+package com.example.robotmaze;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.opencv.android.OpenCVLoader;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pixel-diff of {@link MazeCleaner} against the original five-pass cleanup on synthetic mazes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MazeCleanerTest {
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        assertTrue(OpenCVLoader.initLocal());
+    }
+
+    @Test
+    public void matchesReferenceOnSameInput() {
+        for (int seed = 1; seed <= 3; seed++) {
+            Mat bgr = syntheticMaze(seed);
+            Mat gray = new Mat();
+            Imgproc.cvtColor(bgr, gray, Imgproc.COLOR_BGR2GRAY);
+
+            Mat expected = referenceClean(bgr);
+            Mat actual = MazeCleaner.clean(gray);
+            // The reference's normalize rounds to 8 bits, so Otsu may settle on a neighbouring
+            // threshold bin. That flips only pixels whose blurred value lies between the two.
+            assertTrue("seed " + seed, diffFraction(expected, actual) < 1e-4);
+
+            release(bgr, gray, expected, actual);
+        }
+    }
+
+    @Test
+    public void grayWarpMatchesColorWarp() {
+        MatOfPoint2f src = new MatOfPoint2f(new Point(60, 40), new Point(1150, 90), new Point(1120, 1180), new Point(30, 1130));
+        MatOfPoint2f dst = new MatOfPoint2f(new Point(0, 0), new Point(1000, 0), new Point(1000, 1000), new Point(0, 1000));
+        Mat transform = Imgproc.getPerspectiveTransform(src, dst);
+        for (int seed = 1; seed <= 3; seed++) {
+            Mat bgr = syntheticMaze(seed);
+            Mat gray = new Mat();
+            Imgproc.cvtColor(bgr, gray, Imgproc.COLOR_BGR2GRAY);
+
+            Mat warpedBgr = new Mat();
+            Imgproc.warpPerspective(bgr, warpedBgr, transform, new Size(1000, 1000));
+            Mat warpedGray = new Mat();
+            Imgproc.warpPerspective(gray, warpedGray, transform, new Size(1000, 1000));
+
+            Mat expected = referenceClean(warpedBgr);
+            Mat actual = MazeCleaner.clean(warpedGray);
+            assertTrue("seed " + seed, diffFraction(expected, actual) < 5e-3);
+
+            release(bgr, gray, warpedBgr, warpedGray, expected, actual);
+        }
+        release(src, dst, transform);
+    }
+
+    /** The cleanup as it was before it was fused, kept as the reference. */
+    private static Mat referenceClean(Mat bgr) {
+        Mat gray = new Mat();
+        Imgproc.cvtColor(bgr, gray, Imgproc.COLOR_BGR2GRAY);
+        Imgproc.GaussianBlur(gray, gray, new Size(5, 5), 0);
+        Core.normalize(gray, gray, 0, 255, Core.NORM_MINMAX);
+        Mat binary = new Mat();
+        Imgproc.threshold(gray, binary, 0, 255, Imgproc.THRESH_BINARY_INV | Imgproc.THRESH_OTSU);
+        Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, new Size(3, 3));
+        Imgproc.morphologyEx(binary, binary, Imgproc.MORPH_OPEN, kernel);
+        release(gray, kernel);
+        return binary;
+    }
+
+    /** Dark maze walls on light paper with uneven lighting and sensor noise. */
+    private static Mat syntheticMaze(int seed) {
+        int size = 1200;
+        Mat bgr = new Mat(size, size, CvType.CV_8UC3, new Scalar(215, 220, 225));
+        java.util.Random random = new java.util.Random(seed);
+        int cell = 60;
+        for (int r = 0; r <= size / cell; r++) {
+            for (int c = 0; c <= size / cell; c++) {
+                int x = c * cell;
+                int y = r * cell;
+                if (random.nextBoolean()) {
+                    Imgproc.rectangle(bgr, new Point(x, y), new Point(x + cell, y + 8), new Scalar(40, 40, 45), -1);
+                } else {
+                    Imgproc.rectangle(bgr, new Point(x, y), new Point(x + 8, y + cell), new Scalar(40, 40, 45), -1);
+                }
+            }
+        }
+
+        Mat shading = new Mat(size, size, CvType.CV_8UC3);
+        for (int y = 0; y < size; y += 100) {
+            Imgproc.rectangle(shading, new Point(0, y), new Point(size, y + 100), Scalar.all(y * 40.0 / size), -1);
+        }
+        Core.subtract(bgr, shading, bgr);
+
+        Core.setRNGSeed(seed);
+        Mat noise = new Mat(size, size, CvType.CV_8UC3);
+        Core.randu(noise, 0, 12);
+        Core.add(bgr, noise, bgr);
+        release(shading, noise);
+        return bgr;
+    }
+
+    private static double diffFraction(Mat a, Mat b) {
+        assertEquals(a.size(), b.size());
+        Mat diff = new Mat();
+        Core.compare(a, b, diff, Core.CMP_NE);
+        double fraction = Core.countNonZero(diff) / (double) a.total();
+        diff.release();
+        return fraction;
+    }
+
+    private static void release(Mat... mats) {
+        for (Mat m : mats) m.release();
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.robotmaze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unweighted 4-connected BFS that advances the wavefront 64 cells at a time. Each grid row x is
+ * packed into long words over y; a layer is expanded with shifts and masks against the free-cell
+ * bitmap. Distances are kept modulo 3 in three bitsets, which is enough to backtrack because grid
+ * neighbours always differ by exactly one layer.
+ *
+ * All working buffers are allocated once per grid, so queries do no per-node allocation. The cost of
+ * a query is proportional to layers times active rows, which favours open arenas over long winding
+ * corridors, where {@link CorridorGraph} is the better fit.
+ */
+public class BitParallelBfs {
+
+    private final int rows;
+    private final int cols;
+    private final int words;
+    private final long[][] free;
+    private final long[][] visited;
+    private final long[][][] layerMod3;
+    private long[][] frontier;
+    private long[][] next;
+
+    private int lastLayerCount;
+
+    public BitParallelBfs(int[][] grid) {
+        rows = grid.length;
+        cols = grid[0].length;
+        words = (cols + 63) >>> 6;
+        free = new long[rows][words];
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < cols; y++) {
+                if (grid[x][y] == 0) free[x][y >>> 6] |= 1L << y;
+            }
+        }
+        visited = new long[rows][words];
+        layerMod3 = new long[3][rows][words];
+        frontier = new long[rows][words];
+        next = new long[rows][words];
+    }
+
+    public static List<PathFinder.Node> findPath(int[][] grid, int startX, int startY, int endX, int endY) {
+        return new BitParallelBfs(grid).findPath(startX, startY, endX, endY);
+    }
+
+    /** Number of BFS layers expanded by the most recent {@link #findPath} call. */
+    public int getLastLayerCount() {
+        return lastLayerCount;
+    }
+
+    public List<PathFinder.Node> findPath(int startX, int startY, int endX, int endY) {
+        lastLayerCount = 0;
+        if (!isFree(startX, startY) || !isFree(endX, endY)) return null;
+
+        clear(visited);
+        clear(frontier);
+        for (long[][] layer : layerMod3) clear(layer);
+
+        set(frontier, startX, startY);
+        set(visited, startX, startY);
+        set(layerMod3[0], startX, startY);
+        int minRow = startX;
+        int maxRow = startX;
+        int distance = 0;
+
+        while (!isSet(visited, endX, endY)) {
+            distance++;
+            int lo = Math.max(0, minRow - 1);
+            int hi = Math.min(rows - 1, maxRow + 1);
+            long[][] layer = layerMod3[distance % 3];
+            int newMin = Integer.MAX_VALUE;
+            int newMax = -1;
+
+            for (int x = lo; x <= hi; x++) {
+                long[] up = x > 0 ? frontier[x - 1] : null;
+                long[] down = x < rows - 1 ? frontier[x + 1] : null;
+                long[] row = frontier[x];
+                long[] out = next[x];
+                boolean any = false;
+                for (int w = 0; w < words; w++) {
+                    long spread = (row[w] << 1) | (row[w] >>> 1);
+                    if (w > 0) spread |= row[w - 1] >>> 63;
+                    if (w < words - 1) spread |= row[w + 1] << 63;
+                    if (up != null) spread |= up[w];
+                    if (down != null) spread |= down[w];
+                    long reached = spread & free[x][w] & ~visited[x][w];
+                    out[w] = reached;
+                    if (reached != 0) {
+                        visited[x][w] |= reached;
+                        layer[x][w] |= reached;
+                        any = true;
+                    }
+                }
+                if (any) {
+                    newMin = Math.min(newMin, x);
+                    newMax = x;
+                }
+            }
+
+            // Rows outside [lo, hi] were already empty, so only the scanned band needs swapping back.
+            for (int x = lo; x <= hi; x++) {
+                long[] swap = frontier[x];
+                frontier[x] = next[x];
+                next[x] = swap;
+            }
+            if (newMax < 0) {
+                lastLayerCount = distance;
+                return null;
+            }
+            minRow = newMin;
+            maxRow = newMax;
+        }
+        lastLayerCount = distance;
+        return backtrack(startX, startY, endX, endY, distance);
+    }
+
+    private List<PathFinder.Node> backtrack(int startX, int startY, int endX, int endY, int distance) {
+        PathFinder.Node[] path = new PathFinder.Node[distance + 1];
+        int x = endX;
+        int y = endY;
+        path[distance] = new PathFinder.Node(x, y);
+        for (int d = distance - 1; d > 0; d--) {
+            long[][] previous = layerMod3[d % 3];
+            if (isSet(previous, x - 1, y)) {
+                x--;
+            } else if (isSet(previous, x + 1, y)) {
+                x++;
+            } else if (isSet(previous, x, y - 1)) {
+                y--;
+            } else {
+                y++;
+            }
+            path[d] = new PathFinder.Node(x, y);
+        }
+        path[0] = new PathFinder.Node(startX, startY);
+        return new ArrayList<>(Arrays.asList(path));
+    }
+
+    private boolean isFree(int x, int y) {
+        return isSet(free, x, y);
+    }
+
+    private boolean isSet(long[][] bits, int x, int y) {
+        if (x < 0 || y < 0 || x >= rows || y >= cols) return false;
+        return (bits[x][y >>> 6] & (1L << y)) != 0;
+    }
+
+    private static void set(long[][] bits, int x, int y) {
+        bits[x][y >>> 6] |= 1L << y;
+    }
+
+    private static void clear(long[][] bits) {
+        for (long[] row : bits) Arrays.fill(row, 0L);
+    }
+}
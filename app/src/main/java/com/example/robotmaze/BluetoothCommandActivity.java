@@ -144,14 +144,24 @@ public class BluetoothCommandActivity extends AppCompatActivity {
             updateStatus("Not connected");
             return;
         }
+        int traceCookie = PipelineMetrics.beginAsyncSection("maze:bluetoothSend");
         new Thread(() -> {
             try {
-                outputStream.write((message + "\n").getBytes()); // Add newline as a delimiter
-                outputStream.flush();
+                byte[] data = (message + "\n").getBytes(); // Add newline as a delimiter
+                long t = PipelineMetrics.begin(PipelineMetrics.Stage.SEND);
+                try {
+                    outputStream.write(data);
+                    outputStream.flush();
+                } finally {
+                    PipelineMetrics.end(PipelineMetrics.Stage.SEND, t);
+                }
+                PipelineMetrics.addBluetoothBytesSent(data.length);
                 Log.d(TAG, "Sent: " + message);
             } catch (IOException e) {
                 Log.e(TAG, "Send failed", e);
                 runOnUiThread(() -> updateStatus("Send failed"));
+            } finally {
+                PipelineMetrics.endAsyncSection("maze:bluetoothSend", traceCookie);
             }
         }).start();
     }
@@ -0,0 +1,65 @@
+package com.example.robotmaze;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Shared work-stealing pool for the CPU-bound parts of the pipeline. It is sized to the number of
+ * big cores: on big.LITTLE phones work split evenly across all cores finishes only when the slowest
+ * little core does, so the little cores are left out.
+ */
+final class ComputePool {
+
+    private static final String CPU_DIR = "/sys/devices/system/cpu";
+
+    private static volatile ForkJoinPool pool;
+
+    private ComputePool() {
+    }
+
+    static ForkJoinPool get() {
+        ForkJoinPool p = pool;
+        if (p == null) {
+            synchronized (ComputePool.class) {
+                p = pool;
+                if (p == null) {
+                    p = new ForkJoinPool(bigCoreCount());
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Cores whose maximum frequency is above that of the slowest cluster, or every core when all
+     * clusters are alike or the frequencies cannot be read.
+     */
+    static int bigCoreCount() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        long[] maxFreq = new long[cpus];
+        long slowest = Long.MAX_VALUE;
+        for (int i = 0; i < cpus; i++) {
+            maxFreq[i] = readLong(new File(CPU_DIR + "/cpu" + i + "/cpufreq/cpuinfo_max_freq"));
+            if (maxFreq[i] <= 0) return cpus;
+            slowest = Math.min(slowest, maxFreq[i]);
+        }
+        int big = 0;
+        for (long f : maxFreq) {
+            if (f > slowest) big++;
+        }
+        return big == 0 ? cpus : big;
+    }
+
+    private static long readLong(File file) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line = reader.readLine();
+            return line != null ? Long.parseLong(line.trim()) : -1;
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.robotmaze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Topological view of the logic grid. Junctions, dead ends and marker cells become graph nodes and
+ * every run of corridor cells between two of them becomes a weighted edge, so a search only visits
+ * the decision points of the maze instead of every free cell.
+ */
+public class CorridorGraph {
+
+    private static final int[] DX = {-1, 1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+
+    private final int cols;
+    // Graph node id per cell, or -1 for walls and plain corridor cells.
+    private final int[] nodeIdByCell;
+    private final int[] nodeCell;
+    // Outgoing edges of node n are edgeStart[n] .. edgeStart[n + 1] - 1 (CSR layout).
+    private final int[] edgeStart;
+    private final int[] edgeTarget;
+    private final int[] edgeWeight;
+    // Interior corridor cells of edge e are edgeCells[cellStart[e] .. cellStart[e + 1] - 1].
+    private final int[] cellStart;
+    private final int[] edgeCells;
+
+    private int lastExpandedNodes;
+
+    private CorridorGraph(int cols, int[] nodeIdByCell, int[] nodeCell, int[] edgeStart, int[] edgeTarget,
+                          int[] edgeWeight, int[] cellStart, int[] edgeCells) {
+        this.cols = cols;
+        this.nodeIdByCell = nodeIdByCell;
+        this.nodeCell = nodeCell;
+        this.edgeStart = edgeStart;
+        this.edgeTarget = edgeTarget;
+        this.edgeWeight = edgeWeight;
+        this.cellStart = cellStart;
+        this.edgeCells = edgeCells;
+    }
+
+    /**
+     * Builds the graph for {@code grid}. Each entry of {@code markerCells} is an {x, y} pair that is
+     * forced to be a graph node so that routes between markers can be answered on the graph alone.
+     */
+    public static CorridorGraph build(int[][] grid, int[][] markerCells) {
+        int rows = grid.length;
+        int cols = grid[0].length;
+        int[] nodeIdByCell = new int[rows * cols];
+        Arrays.fill(nodeIdByCell, -1);
+
+        int nodeCount = 0;
+        int[] nodeCell = new int[64];
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < cols; y++) {
+                if (grid[x][y] != 0 || freeDegree(grid, x, y) == 2) continue;
+                if (nodeCount == nodeCell.length) nodeCell = Arrays.copyOf(nodeCell, nodeCount * 2);
+                nodeIdByCell[x * cols + y] = nodeCount;
+                nodeCell[nodeCount++] = x * cols + y;
+            }
+        }
+        if (markerCells != null) {
+            for (int[] marker : markerCells) {
+                if (!PathFinder.isFree(grid, marker[0], marker[1])) continue;
+                int cell = marker[0] * cols + marker[1];
+                if (nodeIdByCell[cell] != -1) continue;
+                if (nodeCount == nodeCell.length) nodeCell = Arrays.copyOf(nodeCell, nodeCount * 2);
+                nodeIdByCell[cell] = nodeCount;
+                nodeCell[nodeCount++] = cell;
+            }
+        }
+        nodeCell = Arrays.copyOf(nodeCell, nodeCount);
+
+        int[] edgeStart = new int[nodeCount + 1];
+        IntList targets = new IntList();
+        IntList weights = new IntList();
+        IntList cellStart = new IntList();
+        IntList cells = new IntList();
+
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStart[node] = targets.size;
+            int sx = nodeCell[node] / cols;
+            int sy = nodeCell[node] % cols;
+            for (int d = 0; d < 4; d++) {
+                int prev = nodeCell[node];
+                int cx = sx + DX[d];
+                int cy = sy + DY[d];
+                if (!PathFinder.isFree(grid, cx, cy)) continue;
+
+                int mark = cells.size;
+                int current = cx * cols + cy;
+                // Plain corridor cells have exactly two free neighbours, so the walk never branches.
+                while (nodeIdByCell[current] == -1) {
+                    cells.add(current);
+                    int next = -1;
+                    for (int k = 0; k < 4; k++) {
+                        int nx = cx + DX[k];
+                        int ny = cy + DY[k];
+                        if (PathFinder.isFree(grid, nx, ny) && nx * cols + ny != prev) {
+                            next = nx * cols + ny;
+                            break;
+                        }
+                    }
+                    prev = current;
+                    current = next;
+                    cx = current / cols;
+                    cy = current % cols;
+                }
+
+                int target = nodeIdByCell[current];
+                if (target == node) {
+                    cells.size = mark;
+                    continue;
+                }
+                cellStart.add(mark);
+                targets.add(target);
+                weights.add(cells.size - mark + 1);
+            }
+        }
+        edgeStart[nodeCount] = targets.size;
+        cellStart.add(cells.size);
+
+        return new CorridorGraph(cols, nodeIdByCell, nodeCell, edgeStart, targets.toArray(), weights.toArray(),
+                cellStart.toArray(), cells.toArray());
+    }
+
+    public int getNodeCount() {
+        return nodeCell.length;
+    }
+
+    public int getEdgeCount() {
+        return edgeTarget.length;
+    }
+
+    public boolean isNode(int x, int y) {
+        return x >= 0 && y >= 0 && y < cols && x * cols + y < nodeIdByCell.length && nodeIdByCell[x * cols + y] != -1;
+    }
+
+    /** Number of graph nodes settled by the most recent {@link #findPath(int, int, int, int)} call. */
+    public int getLastExpandedNodes() {
+        return lastExpandedNodes;
+    }
+
+    /**
+     * Shortest route between two graph nodes, expanded back to the full cell sequence. Returns null
+     * when either endpoint is not a graph node or the endpoints are not connected.
+     */
+    public List<PathFinder.Node> findPath(int startX, int startY, int endX, int endY) {
+        AtomicLong expanded = new AtomicLong();
+        List<PathFinder.Node> path = findPath(startX, startY, endX, endY, null, expanded);
+        lastExpandedNodes = (int) expanded.get();
+        return path;
+    }
+
+    /**
+     * Like {@link #findPath(int, int, int, int)}, but gives up and returns null once no route can
+     * cost (in moves) less than or equal to {@code bestCost}, and adds the number of settled nodes
+     * to {@code expandedNodes}; either may be null. All search state is local, so any number of
+     * threads may query one graph at once.
+     */
+    public List<PathFinder.Node> findPath(int startX, int startY, int endX, int endY, AtomicInteger bestCost,
+                                          AtomicLong expandedNodes) {
+        if (!isNode(startX, startY) || !isNode(endX, endY)) return null;
+        int start = nodeIdByCell[startX * cols + startY];
+        int end = nodeIdByCell[endX * cols + endY];
+
+        int nodeCount = nodeCell.length;
+        int[] dist = new int[nodeCount];
+        int[] viaEdge = new int[nodeCount];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        dist[start] = 0;
+        viaEdge[start] = -1;
+
+        PriorityQueue<Long> open = new PriorityQueue<>();
+        open.add((long) start);
+        int expanded = 0;
+        List<PathFinder.Node> path = null;
+        while (!open.isEmpty()) {
+            long entry = open.poll();
+            int node = (int) (entry & 0xFFFFFFFFL);
+            if ((int) (entry >>> 32) != dist[node]) continue;
+            // Nodes settle in order of distance, so nothing left can beat the bound either.
+            if (bestCost != null && dist[node] > bestCost.get()) break;
+            expanded++;
+            if (node == end) {
+                path = expand(start, end, viaEdge);
+                break;
+            }
+
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                int target = edgeTarget[e];
+                int tentative = dist[node] + edgeWeight[e];
+                if (tentative < dist[target]) {
+                    dist[target] = tentative;
+                    viaEdge[target] = e;
+                    open.add(((long) tentative << 32) | target);
+                }
+            }
+        }
+        if (expandedNodes != null) expandedNodes.addAndGet(expanded);
+        return path;
+    }
+
+    private List<PathFinder.Node> expand(int start, int end, int[] viaEdge) {
+        IntList reversed = new IntList();
+        int node = end;
+        while (node != start) {
+            int e = viaEdge[node];
+            reversed.add(nodeCell[node]);
+            for (int i = cellStart[e + 1] - 1; i >= cellStart[e]; i--) {
+                reversed.add(edgeCells[i]);
+            }
+            node = sourceOf(e);
+        }
+        reversed.add(nodeCell[start]);
+
+        List<PathFinder.Node> path = new ArrayList<>(reversed.size);
+        for (int i = reversed.size - 1; i >= 0; i--) {
+            int cell = reversed.data[i];
+            path.add(new PathFinder.Node(cell / cols, cell % cols));
+        }
+        return path;
+    }
+
+    private int sourceOf(int edge) {
+        int lo = 0;
+        int hi = nodeCell.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (edgeStart[mid] <= edge) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private static int freeDegree(int[][] grid, int x, int y) {
+        int degree = 0;
+        for (int d = 0; d < 4; d++) {
+            if (PathFinder.isFree(grid, x + DX[d], y + DY[d])) degree++;
+        }
+        return degree;
+    }
+
+    private static class IntList {
+        int[] data = new int[256];
+        int size;
+
+        void add(int value) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
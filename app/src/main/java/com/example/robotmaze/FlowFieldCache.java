@@ -0,0 +1,119 @@
+package com.example.robotmaze;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-maze cache of reverse flow fields. A field is built by one BFS outward from a target cell and
+ * stores, for every cell, the direction of the next step towards that target as a single byte.
+ * Routes from any cell to a cached target are then read off in O(path length) without searching.
+ * Fields are evicted least-recently-used once the byte budget is exhausted.
+ */
+public class FlowFieldCache {
+
+    public static final long DEFAULT_BUDGET_BYTES = 4L * 1024 * 1024;
+
+    private static final int[] DX = {-1, 1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+    private static final byte UNREACHABLE = 0;
+    private static final byte TARGET = 5;
+
+    private final int[][] grid;
+    private final int rows;
+    private final int cols;
+    private final int maxFields;
+    private final int[] queue;
+    private final LinkedHashMap<Integer, byte[]> fields;
+
+    private int fieldsBuilt;
+
+    public FlowFieldCache(int[][] grid) {
+        this(grid, DEFAULT_BUDGET_BYTES);
+    }
+
+    public FlowFieldCache(int[][] grid, long budgetBytes) {
+        this.grid = grid;
+        this.rows = grid.length;
+        this.cols = grid[0].length;
+        this.maxFields = (int) Math.max(1, budgetBytes / ((long) rows * cols));
+        this.queue = new int[rows * cols];
+        this.fields = new LinkedHashMap<Integer, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+                return size() > maxFields;
+            }
+        };
+    }
+
+    public int getCachedFieldCount() {
+        return fields.size();
+    }
+
+    public int getMaxFields() {
+        return maxFields;
+    }
+
+    /** Number of BFS passes run so far; a cache hit does not increase it. */
+    public int getFieldsBuilt() {
+        return fieldsBuilt;
+    }
+
+    /**
+     * Route from (fromX, fromY) to (toX, toY), building and caching the target's field on a miss.
+     * Returns null when either cell is blocked or the target is unreachable.
+     */
+    public List<PathFinder.Node> route(int fromX, int fromY, int toX, int toY) {
+        if (!PathFinder.isFree(grid, fromX, fromY) || !PathFinder.isFree(grid, toX, toY)) return null;
+        byte[] field = fieldFor(toX, toY);
+        if (field[fromX * cols + fromY] == UNREACHABLE) return null;
+
+        List<PathFinder.Node> path = new ArrayList<>();
+        int x = fromX;
+        int y = fromY;
+        path.add(new PathFinder.Node(x, y));
+        byte code;
+        while ((code = field[x * cols + y]) != TARGET) {
+            x += DX[code - 1];
+            y += DY[code - 1];
+            path.add(new PathFinder.Node(x, y));
+        }
+        return path;
+    }
+
+    private byte[] fieldFor(int toX, int toY) {
+        int target = toX * cols + toY;
+        byte[] field = fields.get(target);
+        if (field == null) {
+            field = buildField(target);
+            fields.put(target, field);
+        }
+        return field;
+    }
+
+    private byte[] buildField(int target) {
+        byte[] field = new byte[rows * cols];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = target;
+        field[target] = TARGET;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell / cols;
+            int y = cell % cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!PathFinder.isFree(grid, nx, ny)) continue;
+                int next = nx * cols + ny;
+                if (field[next] != UNREACHABLE) continue;
+                // The neighbour steps back the way the wave came: DX/DY pairs 0/1 and 2/3 are opposites.
+                field[next] = (byte) ((d ^ 1) + 1);
+                queue[tail++] = next;
+            }
+        }
+        fieldsBuilt++;
+        return field;
+    }
+}
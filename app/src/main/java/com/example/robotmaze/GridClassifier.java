@@ -0,0 +1,98 @@
+package com.example.robotmaze;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Classifies square cells of a binary wall mask into the logic grid (1 = wall, 0 = free). A cell
+ * is a wall when more than {@code wallFraction} of its pixels are set.
+ *
+ * The mask is copied out of native memory once; bands of grid rows are then counted in parallel
+ * on the given pool. Each band writes only its own rows of the grid, so no locking is needed.
+ * Bands also hash the rows they produce (see {@link GridHash}), so the grid's fingerprint costs
+ * no extra pass.
+ */
+final class GridClassifier {
+
+    // Grid rows per task below which a band is not split further.
+    private static final int MIN_BAND_ROWS = 4;
+
+    private GridClassifier() {
+    }
+
+    /** {@code pixels} is the mask in row-major order, {@code width} bytes per row. */
+    static int[][] classify(byte[] pixels, int width, int height, int cellSize, double wallFraction, ForkJoinPool pool) {
+        return classify(pixels, width, height, cellSize, wallFraction, pool, null);
+    }
+
+    /**
+     * As above, also storing {@link GridHash#ofRow} of grid row r in {@code rowHashes[r]} when
+     * {@code rowHashes} is not null.
+     */
+    static int[][] classify(byte[] pixels, int width, int height, int cellSize, double wallFraction, ForkJoinPool pool,
+                            long[] rowHashes) {
+        int rows = height / cellSize;
+        int cols = width / cellSize;
+        int[][] grid = new int[rows][cols];
+        double threshold = cellSize * cellSize * wallFraction;
+        pool.invoke(new Band(pixels, width, cellSize, threshold, grid, rowHashes, 0, rows));
+        return grid;
+    }
+
+    private static final class Band extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] pixels;
+        private final int width;
+        private final int cellSize;
+        private final double threshold;
+        private final int[][] grid;
+        private final long[] rowHashes;
+        private final int fromRow;
+        private final int toRow;
+
+        Band(byte[] pixels, int width, int cellSize, double threshold, int[][] grid, long[] rowHashes,
+             int fromRow, int toRow) {
+            this.pixels = pixels;
+            this.width = width;
+            this.cellSize = cellSize;
+            this.threshold = threshold;
+            this.grid = grid;
+            this.rowHashes = rowHashes;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow > MIN_BAND_ROWS) {
+                int mid = (fromRow + toRow) >>> 1;
+                invokeAll(new Band(pixels, width, cellSize, threshold, grid, rowHashes, fromRow, mid),
+                        new Band(pixels, width, cellSize, threshold, grid, rowHashes, mid, toRow));
+                return;
+            }
+            int cols = grid.length > 0 ? grid[0].length : 0;
+            int[] counts = new int[cols];
+            for (int r = fromRow; r < toRow; r++) {
+                Arrays.fill(counts, 0);
+                for (int y = r * cellSize; y < (r + 1) * cellSize; y++) {
+                    int offset = y * width;
+                    for (int c = 0; c < cols; c++) {
+                        int count = 0;
+                        int end = offset + (c + 1) * cellSize;
+                        for (int i = offset + c * cellSize; i < end; i++) {
+                            if (pixels[i] != 0) count++;
+                        }
+                        counts[c] += count;
+                    }
+                }
+                int[] row = grid[r];
+                for (int c = 0; c < cols; c++) {
+                    row[c] = counts[c] > threshold ? 1 : 0;
+                }
+                if (rowHashes != null) rowHashes[r] = GridHash.ofRow(row);
+            }
+        }
+    }
+}
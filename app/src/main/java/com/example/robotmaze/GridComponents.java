@@ -0,0 +1,92 @@
+package com.example.robotmaze;
+
+import java.util.Arrays;
+
+/**
+ * Connected-component labelling of the free cells of a logic grid. Built in a single flood pass so
+ * that reachability between any two cells is a constant-time label comparison.
+ */
+public class GridComponents {
+
+    private static final int[] DX = {-1, 1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+
+    private final int rows;
+    private final int cols;
+    // Component label per cell (x * cols + y), or -1 for walls.
+    private final int[] labels;
+    private final int[] sizes;
+
+    private GridComponents(int rows, int cols, int[] labels, int[] sizes) {
+        this.rows = rows;
+        this.cols = cols;
+        this.labels = labels;
+        this.sizes = sizes;
+    }
+
+    public static GridComponents label(int[][] grid) {
+        int rows = grid.length;
+        int cols = grid[0].length;
+        int[] labels = new int[rows * cols];
+        Arrays.fill(labels, -1);
+        int[] queue = new int[rows * cols];
+        int[] sizes = new int[16];
+        int count = 0;
+
+        for (int seed = 0; seed < labels.length; seed++) {
+            if (labels[seed] != -1 || grid[seed / cols][seed % cols] != 0) continue;
+            if (count == sizes.length) sizes = Arrays.copyOf(sizes, count * 2);
+
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = seed;
+            labels[seed] = count;
+            while (head < tail) {
+                int cell = queue[head++];
+                int x = cell / cols;
+                int y = cell % cols;
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DX[d];
+                    int ny = y + DY[d];
+                    if (!PathFinder.isFree(grid, nx, ny)) continue;
+                    int next = nx * cols + ny;
+                    if (labels[next] != -1) continue;
+                    labels[next] = count;
+                    queue[tail++] = next;
+                }
+            }
+            sizes[count++] = tail;
+        }
+        return new GridComponents(rows, cols, labels, Arrays.copyOf(sizes, count));
+    }
+
+    /** Component label of the cell, or -1 if it is a wall or outside the grid. */
+    public int labelOf(int x, int y) {
+        if (x < 0 || y < 0 || x >= rows || y >= cols) return -1;
+        return labels[x * cols + y];
+    }
+
+    public boolean isConnected(int x1, int y1, int x2, int y2) {
+        int label = labelOf(x1, y1);
+        return label != -1 && label == labelOf(x2, y2);
+    }
+
+    public int getComponentCount() {
+        return sizes.length;
+    }
+
+    public int getComponentSize(int label) {
+        return sizes[label];
+    }
+
+    public int getLargestComponentSize() {
+        int largest = 0;
+        for (int size : sizes) largest = Math.max(largest, size);
+        return largest;
+    }
+
+    @Override
+    public String toString() {
+        return "GridComponents{count=" + sizes.length + ", largest=" + getLargestComponentSize() + "}";
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.robotmaze;
+
+/**
+ * 64-bit content fingerprint of a logic grid. Rows are hashed independently, so
+ * {@link GridClassifier} can hash each row as it classifies it and the row hashes are folded
+ * together afterwards. The grid dimensions are part of the hash.
+ */
+final class GridHash {
+
+    private static final long PRIME = 0x100000001B3L;
+    private static final long OFFSET = 0xCBF29CE484222325L;
+
+    private GridHash() {
+    }
+
+    static long of(int[][] grid) {
+        int cols = grid.length > 0 ? grid[0].length : 0;
+        long[] rowHashes = new long[grid.length];
+        for (int r = 0; r < grid.length; r++) {
+            rowHashes[r] = ofRow(grid[r]);
+        }
+        return combine(rowHashes, cols);
+    }
+
+    /** Hash of one row; cells are packed 64 to a word before mixing. */
+    static long ofRow(int[] row) {
+        long h = OFFSET;
+        long word = 0;
+        for (int c = 0; c < row.length; c++) {
+            if (row[c] != 0) word |= 1L << (c & 63);
+            if ((c & 63) == 63) {
+                h = (h ^ word) * PRIME;
+                word = 0;
+            }
+        }
+        return mix((h ^ word) * PRIME);
+    }
+
+    static long combine(long[] rowHashes, int cols) {
+        long h = (OFFSET ^ ((long) rowHashes.length << 32 | cols)) * PRIME;
+        for (long rowHash : rowHashes) {
+            h = (h ^ rowHash) * PRIME;
+        }
+        return mix(h);
+    }
+
+    // Final avalanche from MurmurHash3's fmix64.
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
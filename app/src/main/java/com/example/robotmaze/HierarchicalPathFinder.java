@@ -0,0 +1,305 @@
+package com.example.robotmaze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * HPA*-style search for very fine logic grids. The grid is partitioned into square clusters;
+ * entrance cells on cluster borders and the distances between entrances of the same cluster are
+ * computed once per maze. Queries connect start and goal to the entrances of their own clusters,
+ * search the small abstract graph and then refine each abstract hop with a BFS confined to a single
+ * cluster.
+ *
+ * Every open pair of cells across a cluster border is an entrance, so any shortest route crosses
+ * borders only at abstract nodes and the refined route is strictly shortest. Instances reuse
+ * internal buffers and are not thread-safe.
+ */
+public class HierarchicalPathFinder {
+
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    private static final int[] DX = {-1, 1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+
+    private final int[][] grid;
+    private final int rows;
+    private final int cols;
+    private final int clusterSize;
+    private final int clusterCols;
+
+    private final int[] nodeCell;
+    // Abstract edges of node n are edgeStart[n] .. edgeStart[n + 1] - 1.
+    private final int[] edgeStart;
+    private final int[] edgeTarget;
+    private final int[] edgeWeight;
+    // Abstract nodes of cluster k are clusterNodes[clusterStart[k] .. clusterStart[k + 1] - 1].
+    private final int[] clusterStart;
+    private final int[] clusterNodes;
+
+    private final int[] bfsDist;
+    private final int[] bfsParent;
+    private final int[] bfsStamp;
+    private final int[] bfsQueue;
+    private int stamp;
+
+    private int lastExpandedNodes;
+
+    public HierarchicalPathFinder(int[][] grid) {
+        this(grid, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathFinder(int[][] grid, int clusterSize) {
+        this.grid = grid;
+        this.rows = grid.length;
+        this.cols = grid[0].length;
+        this.clusterSize = clusterSize;
+        this.clusterCols = (cols + clusterSize - 1) / clusterSize;
+        int clusterCount = ((rows + clusterSize - 1) / clusterSize) * clusterCols;
+
+        bfsDist = new int[rows * cols];
+        bfsParent = new int[rows * cols];
+        bfsStamp = new int[rows * cols];
+        bfsQueue = new int[rows * cols];
+
+        Map<Integer, Integer> nodeByCell = new HashMap<>();
+        List<Integer> cells = new ArrayList<>();
+        List<int[]> edges = new ArrayList<>();
+        findEntrances(nodeByCell, cells, edges);
+
+        nodeCell = new int[cells.size()];
+        for (int i = 0; i < nodeCell.length; i++) nodeCell[i] = cells.get(i);
+
+        clusterStart = new int[clusterCount + 1];
+        for (int cell : nodeCell) clusterStart[clusterOf(cell) + 1]++;
+        for (int k = 0; k < clusterCount; k++) clusterStart[k + 1] += clusterStart[k];
+        clusterNodes = new int[nodeCell.length];
+        int[] fill = Arrays.copyOf(clusterStart, clusterCount);
+        for (int n = 0; n < nodeCell.length; n++) clusterNodes[fill[clusterOf(nodeCell[n])]++] = n;
+
+        for (int k = 0; k < clusterCount; k++) {
+            for (int i = clusterStart[k]; i < clusterStart[k + 1]; i++) {
+                int from = clusterNodes[i];
+                localBfs(nodeCell[from], k, -1);
+                for (int j = clusterStart[k]; j < clusterStart[k + 1]; j++) {
+                    int to = clusterNodes[j];
+                    if (to != from && reached(nodeCell[to])) {
+                        edges.add(new int[]{from, to, bfsDist[nodeCell[to]]});
+                    }
+                }
+            }
+        }
+
+        edgeStart = new int[nodeCell.length + 1];
+        for (int[] edge : edges) edgeStart[edge[0] + 1]++;
+        for (int n = 0; n < nodeCell.length; n++) edgeStart[n + 1] += edgeStart[n];
+        edgeTarget = new int[edges.size()];
+        edgeWeight = new int[edges.size()];
+        int[] next = Arrays.copyOf(edgeStart, nodeCell.length);
+        for (int[] edge : edges) {
+            int slot = next[edge[0]]++;
+            edgeTarget[slot] = edge[1];
+            edgeWeight[slot] = edge[2];
+        }
+    }
+
+    public int getAbstractNodeCount() {
+        return nodeCell.length;
+    }
+
+    /** Number of abstract nodes settled by the most recent {@link #findPath} call. */
+    public int getLastExpandedNodes() {
+        return lastExpandedNodes;
+    }
+
+    public List<PathFinder.Node> findPath(int startX, int startY, int endX, int endY) {
+        lastExpandedNodes = 0;
+        if (!PathFinder.isFree(grid, startX, startY) || !PathFinder.isFree(grid, endX, endY)) return null;
+        int startCell = startX * cols + startY;
+        int endCell = endX * cols + endY;
+
+        int n = nodeCell.length;
+        int start = n;
+        int goal = n + 1;
+
+        // Temporary edges from the start into its cluster and from the goal's cluster into the goal.
+        int startCluster = clusterOf(startCell);
+        int goalCluster = clusterOf(endCell);
+        int[] startEdge = new int[n + 2];
+        int[] goalEdge = new int[n + 2];
+        Arrays.fill(startEdge, -1);
+        Arrays.fill(goalEdge, -1);
+
+        localBfs(startCell, startCluster, -1);
+        for (int i = clusterStart[startCluster]; i < clusterStart[startCluster + 1]; i++) {
+            int node = clusterNodes[i];
+            if (reached(nodeCell[node])) startEdge[node] = bfsDist[nodeCell[node]];
+        }
+        if (startCluster == goalCluster && reached(endCell)) startEdge[goal] = bfsDist[endCell];
+
+        localBfs(endCell, goalCluster, -1);
+        for (int i = clusterStart[goalCluster]; i < clusterStart[goalCluster + 1]; i++) {
+            int node = clusterNodes[i];
+            if (reached(nodeCell[node])) goalEdge[node] = bfsDist[nodeCell[node]];
+        }
+
+        int[] dist = new int[n + 2];
+        int[] parent = new int[n + 2];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        dist[start] = 0;
+        parent[start] = -1;
+
+        PriorityQueue<Long> open = new PriorityQueue<>();
+        open.add(pack(heuristic(startCell, endCell), start));
+        while (!open.isEmpty()) {
+            long entry = open.poll();
+            int node = (int) (entry & 0xFFFFFFFFL);
+            int cell = node == start ? startCell : node == goal ? endCell : nodeCell[node];
+            if ((int) (entry >>> 32) != dist[node] + heuristic(cell, endCell)) continue;
+            lastExpandedNodes++;
+            if (node == goal) return refine(parent, start, goal, startCell, endCell);
+
+            if (node == start) {
+                for (int i = clusterStart[startCluster]; i < clusterStart[startCluster + 1]; i++) {
+                    int target = clusterNodes[i];
+                    if (startEdge[target] >= 0) relax(open, dist, parent, node, target, startEdge[target], endCell);
+                }
+                if (startEdge[goal] >= 0) relax(open, dist, parent, node, goal, startEdge[goal], endCell);
+                continue;
+            }
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                relax(open, dist, parent, node, edgeTarget[e], edgeWeight[e], endCell);
+            }
+            if (goalEdge[node] >= 0) relax(open, dist, parent, node, goal, goalEdge[node], endCell);
+        }
+        return null;
+    }
+
+    private void relax(PriorityQueue<Long> open, int[] dist, int[] parent, int from, int to, int weight, int endCell) {
+        int tentative = dist[from] + weight;
+        if (tentative >= dist[to]) return;
+        dist[to] = tentative;
+        parent[to] = from;
+        int cell = to < nodeCell.length ? nodeCell[to] : endCell;
+        open.add(pack(tentative + heuristic(cell, endCell), to));
+    }
+
+    private List<PathFinder.Node> refine(int[] parent, int start, int goal, int startCell, int endCell) {
+        List<Integer> hops = new ArrayList<>();
+        for (int node = goal; node != -1; node = parent[node]) {
+            hops.add(node == goal ? endCell : node == start ? startCell : nodeCell[node]);
+        }
+        Collections.reverse(hops);
+
+        List<PathFinder.Node> path = new ArrayList<>();
+        path.add(new PathFinder.Node(startCell / cols, startCell % cols));
+        for (int i = 1; i < hops.size(); i++) {
+            int from = hops.get(i - 1);
+            int to = hops.get(i);
+            if (from == to) continue;
+            if (clusterOf(from) != clusterOf(to)) {
+                path.add(new PathFinder.Node(to / cols, to % cols));
+                continue;
+            }
+            localBfs(from, clusterOf(from), to);
+            int mark = path.size();
+            for (int cell = to; cell != from; cell = bfsParent[cell]) {
+                path.add(new PathFinder.Node(cell / cols, cell % cols));
+            }
+            Collections.reverse(path.subList(mark, path.size()));
+        }
+        return path;
+    }
+
+    private void findEntrances(Map<Integer, Integer> nodeByCell, List<Integer> cells, List<int[]> edges) {
+        for (int border = clusterSize; border < cols; border += clusterSize) {
+            for (int x0 = 0; x0 < rows; x0 += clusterSize) {
+                int x1 = Math.min(rows, x0 + clusterSize);
+                for (int x = x0; x < x1; x++) {
+                    if (grid[x][border - 1] == 0 && grid[x][border] == 0) {
+                        link(x * cols + border - 1, x * cols + border, nodeByCell, cells, edges);
+                    }
+                }
+            }
+        }
+        for (int border = clusterSize; border < rows; border += clusterSize) {
+            for (int y0 = 0; y0 < cols; y0 += clusterSize) {
+                int y1 = Math.min(cols, y0 + clusterSize);
+                for (int y = y0; y < y1; y++) {
+                    if (grid[border - 1][y] == 0 && grid[border][y] == 0) {
+                        link((border - 1) * cols + y, border * cols + y, nodeByCell, cells, edges);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void link(int cellA, int cellB, Map<Integer, Integer> nodeByCell, List<Integer> cells, List<int[]> edges) {
+        int a = nodeFor(cellA, nodeByCell, cells);
+        int b = nodeFor(cellB, nodeByCell, cells);
+        edges.add(new int[]{a, b, 1});
+        edges.add(new int[]{b, a, 1});
+    }
+
+    private static int nodeFor(int cell, Map<Integer, Integer> nodeByCell, List<Integer> cells) {
+        Integer node = nodeByCell.get(cell);
+        if (node == null) {
+            node = cells.size();
+            nodeByCell.put(cell, node);
+            cells.add(cell);
+        }
+        return node;
+    }
+
+    private int clusterOf(int cell) {
+        return (cell / cols / clusterSize) * clusterCols + (cell % cols) / clusterSize;
+    }
+
+    private boolean reached(int cell) {
+        return bfsStamp[cell] == stamp;
+    }
+
+    /** BFS from {@code source} that never leaves {@code cluster}; stops early once {@code target} is reached. */
+    private void localBfs(int source, int cluster, int target) {
+        stamp++;
+        int x0 = (cluster / clusterCols) * clusterSize;
+        int y0 = (cluster % clusterCols) * clusterSize;
+        int x1 = Math.min(rows, x0 + clusterSize);
+        int y1 = Math.min(cols, y0 + clusterSize);
+
+        int head = 0;
+        int tail = 0;
+        bfsQueue[tail++] = source;
+        bfsStamp[source] = stamp;
+        bfsDist[source] = 0;
+        while (head < tail) {
+            int cell = bfsQueue[head++];
+            if (cell == target) return;
+            int x = cell / cols;
+            int y = cell % cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (nx < x0 || ny < y0 || nx >= x1 || ny >= y1 || grid[nx][ny] != 0) continue;
+                int next = nx * cols + ny;
+                if (bfsStamp[next] == stamp) continue;
+                bfsStamp[next] = stamp;
+                bfsDist[next] = bfsDist[cell] + 1;
+                bfsParent[next] = cell;
+                bfsQueue[tail++] = next;
+            }
+        }
+    }
+
+    private int heuristic(int cell, int endCell) {
+        return Math.abs(cell / cols - endCell / cols) + Math.abs(cell % cols - endCell % cols);
+    }
+
+    private static long pack(int priority, int node) {
+        return ((long) priority << 32) | (node & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.robotmaze;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-bucket log-linear histogram of durations in nanoseconds.
+ *
+ * Values below 16 ns get one bucket each; above that every power of two is split into 8 linear
+ * sub-buckets, so any recorded value is reported to within 12.5%. All buckets are allocated up
+ * front and record() never allocates.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = bucketOf(Long.MAX_VALUE) + 1;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) return (int) Math.max(0, value);
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket - shift * SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    public synchronized void record(long nanos) {
+        counts[bucketOf(nanos)]++;
+        totalCount++;
+        sum += nanos;
+        if (nanos < min) min = nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public synchronized long getCount() {
+        return totalCount;
+    }
+
+    public synchronized long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized long getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    /** Smallest bucket bound at or below which {@code percentile} percent of the samples fall. */
+    public synchronized long getPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(totalCount * percentile / 100.0));
+        long seen = 0;
+        for (int b = 0; b < counts.length; b++) {
+            seen += counts[b];
+            if (seen >= rank) return Math.min(upperBoundOf(b), max);
+        }
+        return max;
+    }
+}
@@ -2,12 +2,12 @@ package com.example.robotmaze;
 
 import android.Manifest;
 import android.content.Intent;
+import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.net.Uri;
 import android.os.Build;
@@ -40,41 +40,48 @@ import androidx.core.view.WindowInsetsCompat;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
-import org.opencv.android.OpenCVLoader;
+import org.opencv.android.MatMemoryLogger;
 import org.opencv.android.Utils;
 import org.opencv.core.Core;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
-import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfByte;
 import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.MatScope;
 import org.opencv.core.Point;
-import org.opencv.core.Scalar;
 import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.FlatContours;
 import org.opencv.imgproc.Imgproc;
-import org.opencv.imgproc.Moments;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.text.DateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "MainActivity";
     private static final int CAMERA_PERMISSION_REQUEST_CODE = 100;
     private static final int BLUETOOTH_PERMISSION_REQUEST_CODE = 101;
-
-    static {
-        if (OpenCVLoader.initLocal()) {
-            Log.d(TAG, "OpenCV loaded successfully!");
-        } else {
-            Log.e(TAG, "OpenCV initialization failed.");
-        }
-    }
+    // Gallery images are subsampled until the shorter side is just above this. The maze is warped to
+    // 1000x1000, so this leaves headroom for a maze that does not fill the whole photo.
+    private static final int DECODE_MIN_SIDE = 1600;
+    // Opt-in: logs live native Mat memory per pipeline stage every few seconds.
+    private static final boolean LOG_MAT_MEMORY = false;
+    // Opt-in: reports Mats reclaimed by the finalizer with their allocation site. This records a
+    // stack trace for every Mat, which would skew the stage timings the HUD shows.
+    private static final boolean TRACK_MAT_LEAKS = false;
 
     private PreviewView previewView;
     private ImageView processedImageView;
@@ -83,8 +90,13 @@ public class MainActivity extends AppCompatActivity {
     private ScrollView gridScrollView;
     private TextView gridTextView;
     private ImageCapture imageCapture;
-    private Bitmap originalBitmap;
+    // Source image of the pipeline in BGR, owned by the activity.
+    private Mat sourceMat;
+    private Bitmap galleryBitmap;
     private ActivityResultLauncher<Intent> pickImageLauncher;
+    private MatMemoryLogger matMemoryLogger;
+    private PerfHudView perfHudView;
+    private boolean perfHudEnabled;
 
     private final String DEVICE_ADDRESS = "4C:03:B3:F7:24:ED"; // Replace with your device's address
     private Runnable onBluetoothPermissionGranted;
@@ -100,12 +112,31 @@ public class MainActivity extends AppCompatActivity {
         });
 
         previewView = findViewById(R.id.preview_view);
+        previewView.getPreviewStreamState().observe(this, state -> {
+            if (state == PreviewView.StreamState.STREAMING) StartupMetrics.onPreviewStreaming(this);
+        });
         processedImageView = findViewById(R.id.processed_image_view);
         captureUploadLayout = findViewById(R.id.capture_upload_layout);
         processBackLayout = findViewById(R.id.process_back_layout);
         Button backButton = findViewById(R.id.back_button);
         gridScrollView = findViewById(R.id.grid_scroll_view);
         gridTextView = findViewById(R.id.grid_text_view);
+        perfHudView = findViewById(R.id.perf_hud_view);
+        mazeStore = new MazeStore(new File(getFilesDir(), "mazes"));
+        Button processButton = findViewById(R.id.process_button);
+
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            perfHudEnabled = true;
+            PipelineMetrics.setTracingEnabled(true);
+        }
+        if (TRACK_MAT_LEAKS) {
+            MatScope.setDebug(true);
+            MatScope.setLeakListener((description, allocationSite) -> Log.w(TAG, description, allocationSite));
+        }
+        if (LOG_MAT_MEMORY) {
+            matMemoryLogger = new MatMemoryLogger(5000);
+            matMemoryLogger.start();
+        }
 
         if (allPermissionsGranted()) {
             startCamera();
@@ -115,28 +146,122 @@ public class MainActivity extends AppCompatActivity {
         }
 
         backButton.setOnClickListener(v -> showPreview());
+        processedImageView.setOnLongClickListener(v -> {
+            dumpPipelineMetrics();
+            return true;
+        });
+        processButton.setOnLongClickListener(v -> {
+            perfHudEnabled = !perfHudEnabled;
+            perfHudView.setVisibility(perfHudEnabled ? View.VISIBLE : View.GONE);
+            return true;
+        });
+        perfHudView.setBackend(pathBackend.name());
+        perfHudView.setOnLongClickListener(v -> {
+            showBackendSelection();
+            return true;
+        });
 
         pickImageLauncher = registerForActivityResult(new ActivityResultContracts.StartActivityForResult(),
                 result -> {
                     if (result.getResultCode() == RESULT_OK && result.getData() != null && result.getData().getData() != null) {
                         Uri imageUri = result.getData().getData();
-                        try (InputStream inputStream = getContentResolver().openInputStream(imageUri)) {
-                            originalBitmap = BitmapFactory.decodeStream(inputStream);
-                            displayBinarizedImage(originalBitmap);
+                        if (!ensureOpenCv()) return;
+                        Mat bgr = null;
+                        long t = PipelineMetrics.begin(PipelineMetrics.Stage.DECODE);
+                        try {
+                            Bitmap decoded = decodeSampledBitmap(imageUri, galleryBitmap);
+                            if (decoded != null) {
+                                galleryBitmap = decoded;
+                                Mat rgba = new Mat();
+                                Utils.bitmapToMat(decoded, rgba);
+                                bgr = new Mat();
+                                Imgproc.cvtColor(rgba, bgr, Imgproc.COLOR_RGBA2BGR);
+                                rgba.release();
+                            }
                         } catch (IOException e) {
                             Log.e(TAG, "Failed to load image from gallery", e);
+                        } finally {
+                            PipelineMetrics.end(PipelineMetrics.Stage.DECODE, t);
+                        }
+                        if (bgr == null) {
+                            Log.e(TAG, "Failed to decode image from gallery");
+                            return;
                         }
+                        setSourceMat(bgr);
+                        displayBinarizedImage(sourceMat);
                     }
                 });
     }
 
+    /**
+     * Decodes {@code uri} subsampled to the processing resolution. {@code reusable} is decoded into
+     * when it is mutable and large enough, otherwise a new bitmap is allocated.
+     */
+    private Bitmap decodeSampledBitmap(Uri uri, Bitmap reusable) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream inputStream = getContentResolver().openInputStream(uri)) {
+            BitmapFactory.decodeStream(inputStream, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSizeFor(options.outWidth, options.outHeight, DECODE_MIN_SIDE);
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+        int width = (options.outWidth + options.inSampleSize - 1) / options.inSampleSize;
+        int height = (options.outHeight + options.inSampleSize - 1) / options.inSampleSize;
+        if (reusable != null && reusable.isMutable() && !reusable.isRecycled()
+                && reusable.getAllocationByteCount() >= width * height * 4) {
+            options.inBitmap = reusable;
+        }
+        Log.d(TAG, "Decoding " + options.outWidth + "x" + options.outHeight + " with inSampleSize " + options.inSampleSize
+                + (options.inBitmap != null ? " into reused bitmap" : ""));
+
+        try (InputStream inputStream = getContentResolver().openInputStream(uri)) {
+            return BitmapFactory.decodeStream(inputStream, null, options);
+        } catch (IllegalArgumentException e) {
+            // inBitmap rejected after all; decode into a fresh bitmap.
+            options.inBitmap = null;
+            try (InputStream inputStream = getContentResolver().openInputStream(uri)) {
+                return BitmapFactory.decodeStream(inputStream, null, options);
+            }
+        }
+    }
+
+    /** Largest power of two that keeps the shorter side at or above {@code minSide}. */
+    static int sampleSizeFor(int width, int height, int minSide) {
+        int shorter = Math.min(width, height);
+        int sampleSize = 1;
+        while (shorter / (sampleSize * 2) >= minSide) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
     public void onCaptureButtonClick(View view) {
         imageCapture.takePicture(ContextCompat.getMainExecutor(this), new ImageCapture.OnImageCapturedCallback() {
             @Override
             public void onCaptureSuccess(@NonNull ImageProxy image) {
-                originalBitmap = imageProxyToBitmap(image);
-                displayBinarizedImage(originalBitmap);
-                image.close();
+                if (!ensureOpenCv()) {
+                    image.close();
+                    return;
+                }
+                long t = PipelineMetrics.begin(PipelineMetrics.Stage.DECODE);
+                Mat decoded;
+                try {
+                    decoded = imageProxyToMat(image);
+                } finally {
+                    PipelineMetrics.end(PipelineMetrics.Stage.DECODE, t);
+                    image.close();
+                }
+                if (decoded.empty()) {
+                    Log.e("CameraX", "Failed to decode captured image");
+                    decoded.release();
+                    return;
+                }
+                setSourceMat(decoded);
+                displayBinarizedImage(sourceMat);
             }
 
             @Override
@@ -151,11 +276,109 @@ public class MainActivity extends AppCompatActivity {
         pickImageLauncher.launch(intent);
     }
 
-    private void displayBinarizedImage(Bitmap bitmap) {
-        Mat originalMat = new Mat();
-        Utils.bitmapToMat(bitmap, originalMat);
+    public void onHistoryButtonClick(View view) {
+        mazeStoreExecutor.execute(() -> {
+            List<MazeStore.StoredMaze> mazes = mazeStore.list();
+            runOnUiThread(() -> showMazeHistory(mazes));
+        });
+    }
+
+    private void showMazeHistory(List<MazeStore.StoredMaze> mazes) {
+        if (mazes.isEmpty()) {
+            Toast.makeText(this, "No stored mazes yet.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        DateFormat dateFormat = android.text.format.DateFormat.getMediumDateFormat(this);
+        DateFormat timeFormat = android.text.format.DateFormat.getTimeFormat(this);
+        String[] options = new String[mazes.size()];
+        for (int i = 0; i < mazes.size(); i++) {
+            MazeStore.StoredMaze maze = mazes.get(i);
+            Date saved = new Date(maze.savedAtMillis);
+            options[i] = dateFormat.format(saved) + " " + timeFormat.format(saved) + " - " + maze.rows + " x " + maze.cols
+                    + ", " + maze.markers.length + " markers";
+        }
+        new android.app.AlertDialog.Builder(this)
+                .setTitle("Maze History")
+                .setItems(options, (dialog, which) -> mazeStoreExecutor.execute(() -> loadStoredMaze(mazes.get(which))))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    /**
+     * Makes a stored maze current, as if processMaze had just produced it, and asks for a start point.
+     * Runs on the maze store executor; only the results are handed to the UI thread.
+     */
+    private void loadStoredMaze(MazeStore.StoredMaze maze) {
+        int[][] grid = maze.getGrid();
+        if (GridHash.of(grid) != maze.gridHash) {
+            Log.e(TAG, "Stored maze is corrupt: " + maze.file);
+            runOnUiThread(() -> Toast.makeText(this, "Stored maze is corrupt.", Toast.LENGTH_LONG).show());
+            return;
+        }
+        GridComponents components = GridComponents.label(grid);
+        CorridorGraph corridorGraph = CorridorGraph.build(grid, maze.markers);
+        List<Point> gridPoints = new ArrayList<>();
+        List<Point> markerPoints = new ArrayList<>();
+        for (int[] cell : maze.markers) {
+            gridPoints.add(new Point(cell[0], cell[1]));
+            markerPoints.add(new Point((cell[0] + 0.5) * maze.cellSize, (cell[1] + 0.5) * maze.cellSize));
+        }
+        Bitmap gridBitmap = Bitmap.createBitmap(maze.imageWidth, maze.imageHeight, Bitmap.Config.ARGB_8888);
+        gridBitmap.eraseColor(Color.WHITE);
+        drawGridOnBitmap(gridBitmap, grid, maze.cellSize, markerPoints);
+
+        runOnUiThread(() -> {
+            setSourceMat(null);
+            currentGrid = grid;
+            currentGridHash = maze.gridHash;
+            currentGridSize = maze.cellSize;
+            currentImageWidth = maze.imageWidth;
+            currentImageHeight = maze.imageHeight;
+            System.arraycopy(maze.homography, 0, currentHomography, 0, currentHomography.length);
+            currentComponents = components;
+            currentBitBfs = null;
+            currentHierarchy = null;
+            currentFlowFields = null;
+            currentMarkerCells = maze.markers;
+            currentCorridorGraph = corridorGraph;
+            detectedEntryPoints = markerPoints;
+
+            showBinarizedImage(gridBitmap);
+            perfHudView.setGrid(grid.length, grid[0].length);
+            showStartPointSelection(gridPoints);
+        });
+        // Posted after the block above, so the grid text appears once the image is shown.
+        displayGrid(grid);
+    }
+
+    private void saveMaze() {
+        int[][] grid = currentGrid;
+        long gridHash = currentGridHash;
+        int cellSize = currentGridSize;
+        int imageWidth = currentImageWidth;
+        int imageHeight = currentImageHeight;
+        double[] homography = currentHomography.clone();
+        int[][] markers = currentMarkerCells;
+        mazeStoreExecutor.execute(() -> {
+            try {
+                File file = mazeStore.save(grid, gridHash, cellSize, imageWidth, imageHeight, homography, markers);
+                Log.d(TAG, "Saved maze to " + file);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to save maze", e);
+            }
+        });
+    }
+
+    private void setSourceMat(Mat bgr) {
+        if (sourceMat != null) {
+            sourceMat.release();
+        }
+        sourceMat = bgr;
+    }
+
+    private void displayBinarizedImage(Mat bgr) {
         Mat grayTemp = new Mat();
-        Imgproc.cvtColor(originalMat, grayTemp, Imgproc.COLOR_RGBA2GRAY);
+        Imgproc.cvtColor(bgr, grayTemp, Imgproc.COLOR_BGR2GRAY);
         Mat binaryTemp = new Mat();
         Imgproc.threshold(grayTemp, binaryTemp, 0, 255, Imgproc.THRESH_BINARY | Imgproc.THRESH_OTSU);
 
@@ -164,84 +387,192 @@ public class MainActivity extends AppCompatActivity {
 
         showBinarizedImage(binarizedBitmap);
 
-        originalMat.release();
         grayTemp.release();
         binaryTemp.release();
     }
 
     public void onProcessButtonClick(View view) {
-        if (originalBitmap != null) {
-            processMaze(originalBitmap);
+        if (sourceMat == null) return;
+        StartupMetrics.onProcessRequested();
+        if (ensureOpenCv()) {
+            processMaze(sourceMat);
         }
     }
 
+    private boolean ensureOpenCv() {
+        if (MazeApplication.awaitOpenCv()) return true;
+        Toast.makeText(this, "OpenCV failed to load.", Toast.LENGTH_LONG).show();
+        return false;
+    }
+
     private List<Point> detectedEntryPoints = new ArrayList<>();
     private int[][] currentGrid;
+    private long currentGridHash;
+    private int[][] currentMarkerCells;
     private int currentGridSize;
-    private Mat currentProcessedMat;
+    private int currentImageWidth;
+    private int currentImageHeight;
+    // Source photo to warped image, row-major; identity when no maze outline was found.
+    private final double[] currentHomography = new double[9];
+    private GridComponents currentComponents;
+    private CorridorGraph currentCorridorGraph;
+    private BitParallelBfs currentBitBfs;
+    private HierarchicalPathFinder currentHierarchy;
+    private FlowFieldCache currentFlowFields;
+    private PathFinder.Backend pathBackend = PathFinder.Backend.CORRIDOR_GRAPH;
+    private final MarkerDetector markerDetector = new MarkerDetector();
+    private final PathCache pathCache = new PathCache();
+    private MazeStore mazeStore;
+    // Reads and writes of the history run here, in order, off the UI thread.
+    private final ExecutorService mazeStoreExecutor = Executors.newSingleThreadExecutor();
+
+    private void processMaze(Mat originalBGR) {
+        PipelineMetrics.beginSection("maze:processMaze");
+        long processStart = System.nanoTime();
+        // Every Mat created below, including temporaries inside the helpers, is released when the
+        // scope closes, whichever way this method exits.
+        try (MatScope scope = MatScope.open("processMaze")) {
+            // Each stage is closed in a finally block so an OpenCV exception cannot leave its trace
+            // section open.
+            long t = PipelineMetrics.begin(PipelineMetrics.Stage.PREPARE);
+            Mat grayTemp = new Mat();
+            try {
+                Imgproc.cvtColor(originalBGR, grayTemp, Imgproc.COLOR_BGR2GRAY);
+            } finally {
+                PipelineMetrics.end(PipelineMetrics.Stage.PREPARE, t);
+            }
 
-    private void processMaze(Bitmap bitmap) {
-        Mat originalMat = new Mat();
-        Utils.bitmapToMat(bitmap, originalMat);
+            t = PipelineMetrics.begin(PipelineMetrics.Stage.CORNERS);
+            Point[] corners;
+            try {
+                Mat binaryTemp = new Mat();
+                Imgproc.threshold(grayTemp, binaryTemp, 0, 255, Imgproc.THRESH_BINARY | Imgproc.THRESH_OTSU);
+                corners = findMazeCorners(binaryTemp);
+            } finally {
+                PipelineMetrics.end(PipelineMetrics.Stage.CORNERS, t);
+            }
 
-        Mat originalBGR = new Mat();
-        Imgproc.cvtColor(originalMat, originalBGR, Imgproc.COLOR_RGBA2BGR);
-        detectedEntryPoints = findGreenMarkers(originalBGR);
+            // Markers sit on the maze boundary, so only a band around the outline is searched.
+            t = PipelineMetrics.begin(PipelineMetrics.Stage.MARKERS);
+            try {
+                detectedEntryPoints = markerDetector.detect(originalBGR, corners);
+            } finally {
+                PipelineMetrics.end(PipelineMetrics.Stage.MARKERS, t);
+            }
 
-        Mat grayTemp = new Mat();
-        Imgproc.cvtColor(originalMat, grayTemp, Imgproc.COLOR_RGBA2GRAY);
+            // Only the gray image is warped: the cleanup works on gray, so warping three channels
+            // and converting afterwards would triple the memory traffic of this stage.
+            t = PipelineMetrics.begin(PipelineMetrics.Stage.WARP);
+            Mat warpedGray;
+            try {
+                if (corners != null) {
+                    warpedGray = warpMaze(grayTemp, corners);
+                    List<Point> warpedMarkers = warpPoints(detectedEntryPoints, corners, 1000, 1000);
+                    detectedEntryPoints = warpedMarkers;
+                } else {
+                    warpedGray = grayTemp;
+                    Arrays.fill(currentHomography, 0);
+                    currentHomography[0] = currentHomography[4] = currentHomography[8] = 1;
+                }
+            } finally {
+                PipelineMetrics.end(PipelineMetrics.Stage.WARP, t);
+            }
 
-        Mat binaryTemp = new Mat();
-        Imgproc.threshold(grayTemp, binaryTemp, 0, 255, Imgproc.THRESH_BINARY | Imgproc.THRESH_OTSU);
+            t = PipelineMetrics.begin(PipelineMetrics.Stage.CLEAN);
+            Mat processedMat;
+            try {
+                processedMat = MazeCleaner.clean(warpedGray);
+            } finally {
+                PipelineMetrics.end(PipelineMetrics.Stage.CLEAN, t);
+            }
 
-        Point[] corners = findMazeCorners(binaryTemp);
+            t = PipelineMetrics.begin(PipelineMetrics.Stage.GRID);
+            List<Point> gridPoints = new ArrayList<>();
+            boolean enoughMarkers;
+            try {
+                int targetCells = 150;
+                currentGridSize = Math.max(4, Math.min(processedMat.cols(), processedMat.rows()) / targetCells);
+
+                long[] rowHashes = new long[processedMat.rows() / currentGridSize];
+                int[][] grid = convertToLogicGrid(processedMat, currentGridSize, rowHashes);
+                long gridHash = GridHash.combine(rowHashes, processedMat.cols() / currentGridSize);
+                if (currentGrid == null || gridHash != currentGridHash) {
+                    currentGrid = grid;
+                    currentGridHash = gridHash;
+                    currentComponents = GridComponents.label(currentGrid);
+                    currentBitBfs = null;
+                    currentHierarchy = null;
+                    currentFlowFields = null;
+                    currentCorridorGraph = null;
+                    Log.d(TAG, "Grid components: " + currentComponents);
+                } else {
+                    // Same maze as last run: keep the labels and whatever the backends built for it.
+                    Log.d(TAG, "Grid unchanged (" + Long.toHexString(currentGridHash) + ")");
+                }
 
-        Mat warpedOriginal;
-        if (corners != null) {
-            warpedOriginal = warpMaze(originalMat, corners);
-            List<Point> warpedMarkers = warpPoints(detectedEntryPoints, corners, 1000, 1000);
-            detectedEntryPoints = warpedMarkers;
-        } else {
-            warpedOriginal = originalMat.clone();
-        }
+                for (Point p : detectedEntryPoints) {
+                    int gridX = (int) (p.x / currentGridSize);
+                    int gridY = (int) (p.y / currentGridSize);
+                    gridX = Math.max(0, Math.min(gridX, currentGrid.length - 1));
+                    gridY = Math.max(0, Math.min(gridY, currentGrid[0].length - 1));
+                    gridPoints.add(new Point(gridX, gridY));
+                }
 
-        Mat processedMat;
-        Imgproc.cvtColor(warpedOriginal, warpedOriginal, Imgproc.COLOR_RGBA2BGR);
-        processedMat = robustClean(warpedOriginal);
-        originalBGR.release();
+                // With fewer than two markers there is nothing to route, so the graph would go unused.
+                enoughMarkers = gridPoints.size() >= 2;
+                int[][] markerCells = toCells(gridPoints);
+                if (enoughMarkers && (currentCorridorGraph == null || !Arrays.deepEquals(markerCells, currentMarkerCells))) {
+                    currentCorridorGraph = CorridorGraph.build(currentGrid, markerCells);
+                    currentMarkerCells = markerCells;
+                    Log.d(TAG, "Corridor graph: " + currentCorridorGraph.getNodeCount() + " nodes, "
+                            + currentCorridorGraph.getEdgeCount() + " edges");
+                }
+            } finally {
+                PipelineMetrics.end(PipelineMetrics.Stage.GRID, t);
+            }
+            perfHudView.setGrid(currentGrid.length, currentGrid[0].length);
+            StartupMetrics.onGridProcessed(System.nanoTime() - processStart);
 
-        int targetCells = 150;
-        currentGridSize = Math.max(4, Math.min(processedMat.cols(), processedMat.rows()) / targetCells);
+            currentImageWidth = processedMat.cols();
+            currentImageHeight = processedMat.rows();
 
-        currentGrid = convertToLogicGrid(processedMat, currentGridSize);
-        if (currentProcessedMat != null) {
-            currentProcessedMat.release();
-        }
-        currentProcessedMat = processedMat.clone();
+            displayGrid(currentGrid);
 
-        displayGrid(currentGrid);
+            if (!enoughMarkers) {
+                runOnUiThread(() -> Toast.makeText(this, "Need at least 2 green markers for entry/exit.", Toast.LENGTH_LONG).show());
+                return;
+            }
 
-        if (detectedEntryPoints.size() < 2) {
-            runOnUiThread(() -> Toast.makeText(this, "Need at least 2 green markers for entry/exit.", Toast.LENGTH_LONG).show());
-            return;
+            saveMaze();
+            runOnUiThread(() -> showStartPointSelection(gridPoints));
+        } finally {
+            PipelineMetrics.endSection();
         }
+    }
 
-        List<Point> gridPoints = new ArrayList<>();
-        for (Point p : detectedEntryPoints) {
-            int gridX = (int) (p.x / currentGridSize);
-            int gridY = (int) (p.y / currentGridSize);
-            gridX = Math.max(0, Math.min(gridX, currentGrid.length - 1));
-            gridY = Math.max(0, Math.min(gridY, currentGrid[0].length - 1));
-            gridPoints.add(new Point(gridX, gridY));
+    private void showBackendSelection() {
+        PathFinder.Backend[] backends = PathFinder.Backend.values();
+        String[] options = new String[backends.length];
+        for (int i = 0; i < backends.length; i++) {
+            options[i] = backends[i].name();
         }
+        new android.app.AlertDialog.Builder(this)
+                .setTitle("Path Backend")
+                .setSingleChoiceItems(options, pathBackend.ordinal(), (dialog, which) -> {
+                    setPathBackend(backends[which]);
+                    dialog.dismiss();
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
 
-        runOnUiThread(() -> showStartPointSelection(gridPoints));
-
-        originalMat.release();
-        grayTemp.release();
-        binaryTemp.release();
-        processedMat.release();
-        warpedOriginal.release();
+    private void setPathBackend(PathFinder.Backend backend) {
+        if (backend == pathBackend) return;
+        pathBackend = backend;
+        // Cached routes came from the previous backend; drop them so timings compare like for like.
+        pathCache.clear();
+        perfHudView.setBackend(backend.name());
+        Log.d(TAG, "Path backend: " + backend);
     }
 
     private void showStartPointSelection(List<Point> gridPoints) {
@@ -275,33 +606,162 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void findBestPath(List<Point> gridPoints, int startIndex) {
-        Point startPoint = gridPoints.get(startIndex);
-        List<PathResult> paths = new ArrayList<>();
-
-        for (int i = 0; i < gridPoints.size(); i++) {
-            if (i == startIndex) continue;
-
-            Point endPoint = gridPoints.get(i);
-            List<PathFinder.Node> path = PathFinder.findPath(currentGrid, (int) startPoint.x, (int) startPoint.y, (int) endPoint.x, (int) endPoint.y);
+        PipelineMetrics.beginSection("maze:findBestPath");
+        try {
+            doFindBestPath(gridPoints, startIndex);
+        } finally {
+            PipelineMetrics.endSection();
+        }
+    }
 
-            if (path != null && !path.isEmpty() && isPathValid(path, currentGrid)) {
-                paths.add(new PathResult(path, startPoint, endPoint, i));
-            }
+    private void doFindBestPath(List<Point> gridPoints, int startIndex) {
+        List<PathResult> paths = new ArrayList<>();
+        long searchedNodes;
+        long t = PipelineMetrics.begin(PipelineMetrics.Stage.SEARCH);
+        try {
+            searchedNodes = searchRoutes(gridPoints, startIndex, paths);
+        } finally {
+            PipelineMetrics.end(PipelineMetrics.Stage.SEARCH, t);
         }
 
         if (paths.isEmpty()) {
+            perfHudView.setSearch(searchedNodes, 0);
             runOnUiThread(() -> Toast.makeText(this, "No valid path found from selected starting point!", Toast.LENGTH_LONG).show());
             return;
         }
 
-        PathResult shortestPath = Collections.min(paths, Comparator.comparingInt(p -> p.path.size()));
+        PathResult shortestPath = Collections.min(paths, Comparator.<PathResult>comparingInt(p -> p.path.size())
+                .thenComparingInt(p -> p.endIndex));
+        long totalSearched = searchedNodes;
 
         runOnUiThread(() -> {
-            displayPath(shortestPath);
+            long renderStart = PipelineMetrics.begin(PipelineMetrics.Stage.RENDER);
+            try {
+                displayPath(shortestPath);
+            } finally {
+                PipelineMetrics.end(PipelineMetrics.Stage.RENDER, renderStart);
+            }
+            perfHudView.setSearch(totalSearched, shortestPath.path.size());
             launchBluetoothActivity(shortestPath);
         });
     }
 
+    /**
+     * Adds a route from the start marker to every reachable end marker to {@code paths}. Returns
+     * the number of nodes expanded, or -1 if the backend does not count them.
+     */
+    private long searchRoutes(List<Point> gridPoints, int startIndex, List<PathResult> paths) {
+        Point startPoint = gridPoints.get(startIndex);
+        long searchedNodes = 0;
+
+        int startX = (int) startPoint.x;
+        int startY = (int) startPoint.y;
+        int cachedBestCost = Integer.MAX_VALUE;
+        List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < gridPoints.size(); i++) {
+            if (i == startIndex) continue;
+            Point endPoint = gridPoints.get(i);
+            int endX = (int) endPoint.x;
+            int endY = (int) endPoint.y;
+            if (!currentComponents.isConnected(startX, startY, endX, endY)) continue;
+            List<PathFinder.Node> cached = pathCache.get(currentGridHash, startX, startY, endX, endY);
+            if (cached != null) {
+                paths.add(new PathResult(cached, startPoint, endPoint, i));
+                cachedBestCost = Math.min(cachedBestCost, cached.size() - 1);
+            } else {
+                targets.add(i);
+            }
+        }
+        Log.d(TAG, "Path cache: " + paths.size() + " routes cached, " + targets.size() + " to search");
+
+        RouteEvaluator.Search search = parallelSearch();
+        if (search != null && !targets.isEmpty()) {
+            int[][] targetCells = new int[targets.size()][];
+            for (int k = 0; k < targets.size(); k++) {
+                Point endPoint = gridPoints.get(targets.get(k));
+                targetCells[k] = new int[]{(int) endPoint.x, (int) endPoint.y};
+            }
+            AtomicLong expanded = new AtomicLong();
+            List<List<PathFinder.Node>> found = RouteEvaluator.evaluate(startX, startY, targetCells, cachedBestCost,
+                    search, expanded, ComputePool.get());
+            searchedNodes = expanded.get();
+            for (int k = 0; k < targets.size(); k++) {
+                List<PathFinder.Node> path = found.get(k);
+                if (path != null && !path.isEmpty() && isPathValid(path, currentGrid)) {
+                    paths.add(new PathResult(path, startPoint, gridPoints.get(targets.get(k)), targets.get(k)));
+                    pathCache.put(currentGridHash, startX, startY, targetCells[k][0], targetCells[k][1], path);
+                }
+            }
+        } else {
+            for (int i : targets) {
+                Point endPoint = gridPoints.get(i);
+                List<PathFinder.Node> path = findGridPath(startX, startY, (int) endPoint.x, (int) endPoint.y);
+                int expanded = lastSearchedNodes();
+                searchedNodes = (searchedNodes < 0 || expanded < 0) ? -1 : searchedNodes + expanded;
+
+                if (path != null && !path.isEmpty() && isPathValid(path, currentGrid)) {
+                    paths.add(new PathResult(path, startPoint, endPoint, i));
+                    pathCache.put(currentGridHash, startX, startY, (int) endPoint.x, (int) endPoint.y, path);
+                }
+            }
+        }
+
+        return searchedNodes;
+    }
+
+    /**
+     * The active backend as a search that may run on several threads at once, or null for the
+     * backends that reuse per-instance scratch buffers and must be queried one at a time.
+     */
+    private RouteEvaluator.Search parallelSearch() {
+        switch (pathBackend) {
+            case A_STAR:
+                return RouteEvaluator.aStar(currentGrid);
+            case CORRIDOR_GRAPH:
+                return currentCorridorGraph::findPath;
+            default:
+                return null;
+        }
+    }
+
+    private List<PathFinder.Node> findGridPath(int startX, int startY, int endX, int endY) {
+        switch (pathBackend) {
+            case CORRIDOR_GRAPH:
+                return currentCorridorGraph.findPath(startX, startY, endX, endY);
+            case BIT_PARALLEL_BFS:
+                if (currentBitBfs == null) currentBitBfs = new BitParallelBfs(currentGrid);
+                return currentBitBfs.findPath(startX, startY, endX, endY);
+            case HIERARCHICAL:
+                if (currentHierarchy == null) currentHierarchy = new HierarchicalPathFinder(currentGrid);
+                return currentHierarchy.findPath(startX, startY, endX, endY);
+            case FLOW_FIELD:
+                if (currentFlowFields == null) currentFlowFields = new FlowFieldCache(currentGrid);
+                return currentFlowFields.route(startX, startY, endX, endY);
+            default:
+                return PathFinder.findPath(currentGrid, startX, startY, endX, endY);
+        }
+    }
+
+    /** Nodes expanded by the last findGridPath call, or -1 if the backend does not count them. */
+    private int lastSearchedNodes() {
+        switch (pathBackend) {
+            case CORRIDOR_GRAPH:
+                return currentCorridorGraph.getLastExpandedNodes();
+            case HIERARCHICAL:
+                return currentHierarchy.getLastExpandedNodes();
+            default:
+                return -1;
+        }
+    }
+
+    private static int[][] toCells(List<Point> gridPoints) {
+        int[][] cells = new int[gridPoints.size()][];
+        for (int i = 0; i < gridPoints.size(); i++) {
+            cells[i] = new int[]{(int) gridPoints.get(i).x, (int) gridPoints.get(i).y};
+        }
+        return cells;
+    }
+
     private void launchBluetoothActivity(PathResult pathResult) {
         StringBuilder pathString = new StringBuilder();
         for (PathFinder.Node node : pathResult.path) {
@@ -322,14 +782,11 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void displayPath(PathResult pathResult) {
-        Mat displayMat = new Mat(currentProcessedMat.size(), CvType.CV_8UC3, new Scalar(255, 255, 255));
-        Bitmap gridBitmap = Bitmap.createBitmap(displayMat.cols(), displayMat.rows(), Bitmap.Config.ARGB_8888);
-        Utils.matToBitmap(displayMat, gridBitmap);
+        Bitmap gridBitmap = Bitmap.createBitmap(currentImageWidth, currentImageHeight, Bitmap.Config.ARGB_8888);
+        gridBitmap.eraseColor(Color.WHITE);
 
-        drawGridOnBitmap(gridBitmap, currentGrid, currentGridSize);
+        drawGridOnBitmap(gridBitmap, currentGrid, currentGridSize, detectedEntryPoints);
         drawPathOnBitmap(gridBitmap, pathResult.path, currentGridSize, pathResult.start, pathResult.end);
-
-        displayMat.release();
     }
 
     private static class PathResult {
@@ -345,38 +802,7 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    private List<Point> findGreenMarkers(Mat image) {
-        List<Point> markers = new ArrayList<>();
-        Mat hsvImage = new Mat();
-        Imgproc.cvtColor(image, hsvImage, Imgproc.COLOR_BGR2HSV);
-        Scalar lowerGreen = new Scalar(45, 100, 100);
-        Scalar upperGreen = new Scalar(75, 255, 255);
-        Mat greenMask = new Mat();
-        Core.inRange(hsvImage, lowerGreen, upperGreen, greenMask);
-        Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(3, 3));
-        Imgproc.morphologyEx(greenMask, greenMask, Imgproc.MORPH_OPEN, kernel, new Point(-1, -1), 2);
-        Imgproc.dilate(greenMask, greenMask, kernel, new Point(-1, -1), 1);
-        List<MatOfPoint> contours = new ArrayList<>();
-        Imgproc.findContours(greenMask, contours, new Mat(), Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
-
-        for (MatOfPoint contour : contours) {
-            if (Imgproc.contourArea(contour) > 100) {
-                Moments moments = Imgproc.moments(contour);
-                if (moments.get_m00() != 0) {
-                    int cx = (int) (moments.get_m10() / moments.get_m00());
-                    int cy = (int) (moments.get_m01() / moments.get_m00());
-                    markers.add(new Point(cy, cx));
-                }
-            }
-            contour.release();
-        }
-        hsvImage.release();
-        greenMask.release();
-        kernel.release();
-        return markers;
-    }
-
-    private void drawGridOnBitmap(Bitmap baseBitmap, int[][] grid, int gridSize) {
+    private void drawGridOnBitmap(Bitmap baseBitmap, int[][] grid, int gridSize, List<Point> markers) {
         Canvas canvas = new Canvas(baseBitmap);
         Paint wallPaint = new Paint();
         wallPaint.setColor(Color.BLACK);
@@ -396,7 +822,7 @@ public class MainActivity extends AppCompatActivity {
         markerPaint.setColor(Color.GREEN);
         markerPaint.setStyle(Paint.Style.FILL);
         markerPaint.setAlpha(180);
-        for (Point marker : detectedEntryPoints) {
+        for (Point marker : markers) {
             int gridX = (int) (marker.x / gridSize);
             int gridY = (int) (marker.y / gridSize);
             canvas.drawCircle(gridY * gridSize + (gridSize / 2f), gridX * gridSize + (gridSize / 2f), gridSize * 2f, markerPaint);
@@ -445,33 +871,14 @@ public class MainActivity extends AppCompatActivity {
         runOnUiThread(() -> processedImageView.setImageBitmap(baseBitmap));
     }
 
-    private Mat robustClean(Mat warpedMat) {
-        Mat gray = new Mat();
-        Imgproc.cvtColor(warpedMat, gray, Imgproc.COLOR_BGR2GRAY);
-        Imgproc.GaussianBlur(gray, gray, new Size(5, 5), 0);
-        Core.normalize(gray, gray, 0, 255, Core.NORM_MINMAX);
-        Mat binary = new Mat();
-        Imgproc.threshold(gray, binary, 0, 255, Imgproc.THRESH_BINARY_INV | Imgproc.THRESH_OTSU);
-        Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, new Size(3, 3));
-        Imgproc.morphologyEx(binary, binary, Imgproc.MORPH_OPEN, kernel);
-        gray.release();
-        kernel.release();
-        return binary;
-    }
-
-    public int[][] convertToLogicGrid(Mat binaryMat, int gridSize) {
-        int rows = binaryMat.rows() / gridSize;
-        int cols = binaryMat.cols() / gridSize;
-        int[][] logicGrid = new int[rows][cols];
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                Mat cell = new Mat(binaryMat, new org.opencv.core.Rect(c * gridSize, r * gridSize, gridSize, gridSize));
-                int wallPixels = Core.countNonZero(cell);
-                logicGrid[r][c] = (wallPixels > (gridSize * gridSize * 0.4)) ? 1 : 0;
-                cell.release();
-            }
-        }
-        return logicGrid;
+    /** Fills {@code rowHashes}, one entry per grid row, for {@link GridHash#combine}. */
+    public int[][] convertToLogicGrid(Mat binaryMat, int gridSize, long[] rowHashes) {
+        Mat continuous = binaryMat.isContinuous() ? binaryMat : binaryMat.clone();
+        byte[] pixels = new byte[continuous.cols() * continuous.rows()];
+        continuous.get(0, 0, pixels);
+        if (continuous != binaryMat) continuous.release();
+        return GridClassifier.classify(pixels, binaryMat.cols(), binaryMat.rows(), gridSize, 0.4,
+                ComputePool.get(), rowHashes);
     }
 
     private Mat warpMaze(Mat input, Point[] corners) {
@@ -481,6 +888,7 @@ public class MainActivity extends AppCompatActivity {
         Mat perspectiveTransform = Imgproc.getPerspectiveTransform(src, dst);
         Mat warped = new Mat();
         Imgproc.warpPerspective(input, warped, perspectiveTransform, new Size(1000, 1000));
+        perspectiveTransform.get(0, 0, currentHomography);
         perspectiveTransform.release();
         src.release();
         dst.release();
@@ -516,34 +924,43 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private Point[] findMazeCorners(Mat binary) {
-        List<MatOfPoint> contours = new ArrayList<>();
-        Imgproc.findContours(binary, contours, new Mat(), Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
-        MatOfPoint largestContour = null;
+        Mat hierarchy = new Mat();
+        FlatContours contours = Imgproc.findContoursFlat(binary, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+        hierarchy.release();
+        int largestContour = -1;
         double maxArea = 0;
-        for (MatOfPoint contour : contours) {
-            double area = Imgproc.contourArea(contour);
+        for (int i = 0; i < contours.size(); i++) {
+            double area = contours.area(i);
             if (area > maxArea) {
                 maxArea = area;
-                largestContour = contour;
+                largestContour = i;
             }
         }
-        if (largestContour != null) {
-            MatOfPoint2f contour2f = new MatOfPoint2f(largestContour.toArray());
-            double peri = Imgproc.arcLength(contour2f, true);
-            MatOfPoint2f approx = new MatOfPoint2f();
-            Imgproc.approxPolyDP(contour2f, approx, 0.02 * peri, true);
-            if (approx.total() == 4) {
-                Point[] result = approx.toArray();
-                approx.release();
-                contour2f.release();
+        if (largestContour != -1) {
+            double peri = contours.arcLength(largestContour, true);
+            int[] approx = contours.approxPolyDP(largestContour, 0.02 * peri, true);
+            if (approx.length == 8) {
+                Point[] result = new Point[4];
+                for (int k = 0; k < 4; k++) {
+                    result[k] = new Point(approx[2 * k], approx[2 * k + 1]);
+                }
                 return result;
             }
-            approx.release();
-            contour2f.release();
         }
         return null;
     }
 
+    private void dumpPipelineMetrics() {
+        PipelineMetrics.dumpToLog();
+        File file = new File(getFilesDir(), "pipeline_metrics.json");
+        try {
+            PipelineMetrics.writeJson(file);
+            Toast.makeText(this, "Pipeline metrics written to " + file, Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write pipeline metrics", e);
+        }
+    }
+
     private void showBinarizedImage(Bitmap bitmap) {
         previewView.setVisibility(View.GONE);
         captureUploadLayout.setVisibility(View.GONE);
@@ -551,6 +968,8 @@ public class MainActivity extends AppCompatActivity {
         processBackLayout.setVisibility(View.VISIBLE);
         gridScrollView.setVisibility(View.GONE);
         processedImageView.setImageBitmap(bitmap);
+        perfHudView.setVisibility(perfHudEnabled ? View.VISIBLE : View.GONE);
+        perfHudView.refresh();
     }
 
     private void showPreview() {
@@ -559,16 +978,36 @@ public class MainActivity extends AppCompatActivity {
         processedImageView.setVisibility(View.GONE);
         processBackLayout.setVisibility(View.GONE);
         gridScrollView.setVisibility(View.GONE);
+        perfHudView.setVisibility(View.GONE);
     }
 
-    private Bitmap imageProxyToBitmap(ImageProxy image) {
+    /**
+     * Decodes the capture's JPEG plane straight into a BGR Mat and applies the capture rotation with
+     * Core.rotate, without intermediate byte[] or Bitmap copies of the full image.
+     */
+    private Mat imageProxyToMat(ImageProxy image) {
         ByteBuffer buffer = image.getPlanes()[0].getBuffer();
-        byte[] bytes = new byte[buffer.remaining()];
-        buffer.get(bytes);
-        Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
-        Matrix matrix = new Matrix();
-        matrix.postRotate(image.getImageInfo().getRotationDegrees());
-        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        buffer.rewind();
+        Mat jpeg;
+        if (buffer.isDirect()) {
+            jpeg = new Mat(1, buffer.remaining(), CvType.CV_8UC1, buffer);
+        } else {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            jpeg = new MatOfByte(bytes);
+        }
+        // CameraX reports the rotation separately, so any EXIF orientation is ignored here.
+        Mat decoded = Imgcodecs.imdecode(jpeg, Imgcodecs.IMREAD_COLOR | Imgcodecs.IMREAD_IGNORE_ORIENTATION);
+        jpeg.release();
+
+        int rotation = image.getImageInfo().getRotationDegrees();
+        if (rotation == 0 || decoded.empty()) return decoded;
+        Mat rotated = new Mat();
+        int code = rotation == 90 ? Core.ROTATE_90_CLOCKWISE
+                : rotation == 180 ? Core.ROTATE_180 : Core.ROTATE_90_COUNTERCLOCKWISE;
+        Core.rotate(decoded, rotated, code);
+        decoded.release();
+        return rotated;
     }
 
     private void startCamera() {
@@ -587,6 +1026,23 @@ public class MainActivity extends AppCompatActivity {
         }, ContextCompat.getMainExecutor(this));
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Picks up bytes sent while BluetoothCommandActivity was in front.
+        perfHudView.refresh();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (matMemoryLogger != null) {
+            matMemoryLogger.stop();
+        }
+        mazeStoreExecutor.shutdown();
+        setSourceMat(null);
+    }
+
     private boolean allPermissionsGranted() {
         return ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) == PackageManager.PERMISSION_GRANTED;
     }
@@ -0,0 +1,123 @@
+package com.example.robotmaze;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatScope;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.FlatContours;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.imgproc.Moments;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the green entry/exit markers. Markers sit on the maze boundary, so when the maze
+ * quadrilateral is known only a band along each of its four edges is converted to HSV and searched;
+ * otherwise the whole image is. Results are marker centroids as Point(row, col).
+ */
+public class MarkerDetector {
+
+    private Scalar lowerHsv = new Scalar(45, 100, 100);
+    private Scalar upperHsv = new Scalar(75, 255, 255);
+    private double minArea = 100;
+    private double bandFraction = 0.08;
+    private int minBand = 24;
+
+    public MarkerDetector setHsvRange(Scalar lower, Scalar upper) {
+        lowerHsv = lower;
+        upperHsv = upper;
+        return this;
+    }
+
+    public MarkerDetector setMinArea(double minArea) {
+        this.minArea = minArea;
+        return this;
+    }
+
+    /**
+     * Half-width of the searched band on either side of each maze edge, as a fraction of the mean
+     * edge length, but never less than {@code minPixels}.
+     */
+    public MarkerDetector setBand(double fraction, int minPixels) {
+        bandFraction = fraction;
+        minBand = minPixels;
+        return this;
+    }
+
+    /** {@code quad} is the maze outline in contour order, or null to search the whole image. */
+    public List<Point> detect(Mat bgr, Point[] quad) {
+        try (MatScope scope = MatScope.open("findGreenMarkers")) {
+            List<Point> markers = new ArrayList<>();
+            Rect bounds = new Rect(0, 0, bgr.cols(), bgr.rows());
+            if (quad == null) {
+                detectIn(bgr, bounds, markers, 0);
+                return markers;
+            }
+
+            double perimeter = 0;
+            for (int i = 0; i < quad.length; i++) {
+                Point a = quad[i];
+                Point b = quad[(i + 1) % quad.length];
+                perimeter += Math.hypot(b.x - a.x, b.y - a.y);
+            }
+            int band = (int) Math.max(minBand, bandFraction * perimeter / quad.length);
+            for (int i = 0; i < quad.length; i++) {
+                Point a = quad[i];
+                Point b = quad[(i + 1) % quad.length];
+                int x0 = (int) Math.floor(Math.min(a.x, b.x)) - band;
+                int y0 = (int) Math.floor(Math.min(a.y, b.y)) - band;
+                int x1 = (int) Math.ceil(Math.max(a.x, b.x)) + band;
+                int y1 = (int) Math.ceil(Math.max(a.y, b.y)) + band;
+                Rect strip = intersect(new Rect(x0, y0, x1 - x0, y1 - y0), bounds);
+                if (strip.width > 0 && strip.height > 0) {
+                    // Strips overlap at the corners; a marker seen twice is kept once.
+                    detectIn(bgr.submat(strip), strip, markers, band / 2.0);
+                }
+            }
+            return markers;
+        }
+    }
+
+    private void detectIn(Mat bgr, Rect offset, List<Point> markers, double mergeDistance) {
+        Mat hsvImage = new Mat();
+        Imgproc.cvtColor(bgr, hsvImage, Imgproc.COLOR_BGR2HSV);
+        Mat greenMask = new Mat();
+        Core.inRange(hsvImage, lowerHsv, upperHsv, greenMask);
+        Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(3, 3));
+        Imgproc.morphologyEx(greenMask, greenMask, Imgproc.MORPH_OPEN, kernel, new Point(-1, -1), 2);
+        Imgproc.dilate(greenMask, greenMask, kernel, new Point(-1, -1), 1);
+        FlatContours contours = Imgproc.findContoursFlat(greenMask, new Mat(), Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+
+        for (int i = 0; i < contours.size(); i++) {
+            if (contours.area(i) > minArea) {
+                Moments moments = contours.moments(i);
+                if (moments.get_m00() != 0) {
+                    int cx = (int) (moments.get_m10() / moments.get_m00()) + offset.x;
+                    int cy = (int) (moments.get_m01() / moments.get_m00()) + offset.y;
+                    if (!isNear(markers, cy, cx, mergeDistance)) {
+                        markers.add(new Point(cy, cx));
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isNear(List<Point> markers, double row, double col, double distance) {
+        for (Point p : markers) {
+            if (Math.abs(p.x - row) <= distance && Math.abs(p.y - col) <= distance) return true;
+        }
+        return false;
+    }
+
+    private static Rect intersect(Rect r, Rect bounds) {
+        int x0 = Math.max(r.x, bounds.x);
+        int y0 = Math.max(r.y, bounds.y);
+        int x1 = Math.min(r.x + r.width, bounds.x + bounds.width);
+        int y1 = Math.min(r.y + r.height, bounds.y + bounds.height);
+        return new Rect(x0, y0, Math.max(0, x1 - x0), Math.max(0, y1 - y0));
+    }
+}
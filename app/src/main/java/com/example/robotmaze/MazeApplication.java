@@ -0,0 +1,65 @@
+package com.example.robotmaze;
+
+import android.app.Application;
+import android.util.Log;
+
+import org.opencv.android.OpenCVLoader;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+public class MazeApplication extends Application {
+
+    private static final String TAG = "MazeApplication";
+
+    // Loading libopencv_java maps and relocates several megabytes of native code, so it runs on its
+    // own thread while the first activity inflates and binds the camera.
+    private static final FutureTask<Boolean> openCvLoad = new FutureTask<>(() -> {
+        boolean loaded = OpenCVLoader.initLocal();
+        if (loaded) {
+            Log.d(TAG, "OpenCV loaded successfully!");
+        } else {
+            Log.e(TAG, "OpenCV initialization failed.");
+        }
+        return loaded;
+    });
+    private static boolean loadStarted;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        startOpenCvLoad();
+    }
+
+    private static synchronized void startOpenCvLoad() {
+        if (loadStarted) return;
+        loadStarted = true;
+        new Thread(openCvLoad, "OpenCVLoader").start();
+    }
+
+    public static boolean isOpenCvReady() {
+        if (!openCvLoad.isDone()) return false;
+        try {
+            return openCvLoad.get();
+        } catch (InterruptedException | ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Blocks until the native library is loaded. Call before the first OpenCV use; it returns
+     * immediately once loading has finished.
+     */
+    public static boolean awaitOpenCv() {
+        startOpenCvLoad();
+        try {
+            return openCvLoad.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            Log.e(TAG, "OpenCV initialization failed.", e.getCause());
+            return false;
+        }
+    }
+}
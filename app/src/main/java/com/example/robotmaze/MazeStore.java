@@ -0,0 +1,205 @@
+package com.example.robotmaze;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Directory of processed mazes, one file per grid, so a maze can be routed again without a photo.
+ *
+ * File layout, big-endian:
+ * <pre>
+ * int    magic "RMZ1"
+ * int    version
+ * int    rows, cols            logic grid dimensions
+ * int    cellSize              pixels per cell in the warped image
+ * int    imageWidth, imageHeight
+ * long   gridHash              {@link GridHash} of the grid
+ * long   savedAtMillis
+ * double homography[9]         source photo to warped image, row-major
+ * int    markerCount
+ * int    markers[markerCount][2]   (x, y) grid cells
+ * byte   grid[(rows * cols + 7) / 8]   cell x * cols + y is bit (i &amp; 7) of byte i / 8, 1 = wall
+ * </pre>
+ *
+ * Files are read through FileChannel.map, so opening one for the history list touches only the
+ * header pages; the grid body is paged in when it is first read.
+ */
+public class MazeStore {
+
+    private static final String TAG = "MazeStore";
+    private static final int MAGIC = 0x524D5A31;
+    private static final int VERSION = 1;
+    private static final int FIXED_HEADER_BYTES = 4 * 7 + 8 * 2 + 8 * 9 + 4;
+    private static final String SUFFIX = ".maze";
+
+    public static final int DEFAULT_MAX_ENTRIES = 32;
+
+    private final File directory;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    public MazeStore(File directory) {
+        this(directory, DEFAULT_MAX_ENTRIES);
+    }
+
+    public MazeStore(File directory, int maxEntries) {
+        this(directory, maxEntries, System::currentTimeMillis);
+    }
+
+    MazeStore(File directory, int maxEntries, LongSupplier clock) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Writes the maze, replacing any stored maze with the same grid hash, and drops the mazes saved
+     * longest ago beyond the entry limit.
+     */
+    public File save(int[][] grid, long gridHash, int cellSize, int imageWidth, int imageHeight,
+                     double[] homography, int[][] markers) throws IOException {
+        int rows = grid.length;
+        int cols = rows > 0 ? grid[0].length : 0;
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_HEADER_BYTES + markers.length * 8 + (rows * cols + 7) / 8);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(cellSize)
+                .putInt(imageWidth).putInt(imageHeight).putLong(gridHash).putLong(clock.getAsLong());
+        for (int i = 0; i < 9; i++) buffer.putDouble(homography[i]);
+        buffer.putInt(markers.length);
+        for (int[] marker : markers) buffer.putInt(marker[0]).putInt(marker[1]);
+
+        int bit = 0;
+        int current = 0;
+        for (int[] row : grid) {
+            for (int cell : row) {
+                if (cell != 0) current |= 1 << (bit & 7);
+                if ((++bit & 7) == 0) {
+                    buffer.put((byte) current);
+                    current = 0;
+                }
+            }
+        }
+        if ((bit & 7) != 0) buffer.put((byte) current);
+        buffer.flip();
+
+        if (!directory.isDirectory() && !directory.mkdirs()) throw new IOException("Cannot create " + directory);
+        File file = new File(directory, String.format(Locale.ROOT, "%016x", gridHash) + SUFFIX);
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (RandomAccessFile out = new RandomAccessFile(temp, "rw")) {
+            out.setLength(0);
+            FileChannel channel = out.getChannel();
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot write " + file);
+        }
+        trim();
+        return file;
+    }
+
+    /** Stored mazes, most recently saved first. Unreadable files are skipped. */
+    public List<StoredMaze> list() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        List<StoredMaze> mazes = new ArrayList<>();
+        if (files == null) return mazes;
+        for (File file : files) {
+            try {
+                mazes.add(load(file));
+            } catch (IOException e) {
+                Log.w(TAG, "Skipping " + file, e);
+            }
+        }
+        mazes.sort((a, b) -> Long.compare(b.savedAtMillis, a.savedAtMillis));
+        return mazes;
+    }
+
+    public static StoredMaze load(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            // The mapping stays valid after the channel is closed.
+            buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+        }
+        if (buffer.remaining() < FIXED_HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a maze file: " + file);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) throw new IOException("Unsupported maze file version " + version + ": " + file);
+        return new StoredMaze(file, buffer);
+    }
+
+    /** Ages come from the savedAtMillis header, the same order {@link #list} shows. */
+    private void trim() {
+        List<StoredMaze> mazes = list();
+        for (int i = maxEntries; i < mazes.size(); i++) {
+            mazes.get(i).file.delete();
+        }
+    }
+
+    /** Header of a stored maze; the grid is unpacked from the mapped file on first use. */
+    public static final class StoredMaze {
+        public final File file;
+        public final int rows;
+        public final int cols;
+        public final int cellSize;
+        public final int imageWidth;
+        public final int imageHeight;
+        public final long gridHash;
+        public final long savedAtMillis;
+        public final double[] homography = new double[9];
+        public final int[][] markers;
+
+        private final ByteBuffer body;
+        private int[][] grid;
+
+        StoredMaze(File file, ByteBuffer buffer) throws IOException {
+            this.file = file;
+            rows = buffer.getInt();
+            cols = buffer.getInt();
+            cellSize = buffer.getInt();
+            imageWidth = buffer.getInt();
+            imageHeight = buffer.getInt();
+            gridHash = buffer.getLong();
+            savedAtMillis = buffer.getLong();
+            for (int i = 0; i < 9; i++) homography[i] = buffer.getDouble();
+            int markerCount = buffer.getInt();
+            if (rows <= 0 || cols <= 0 || markerCount < 0
+                    || buffer.remaining() < (long) markerCount * 8 + ((long) rows * cols + 7) / 8) {
+                throw new IOException("Truncated maze file: " + file);
+            }
+            markers = new int[markerCount][];
+            for (int i = 0; i < markerCount; i++) {
+                markers[i] = new int[]{buffer.getInt(), buffer.getInt()};
+            }
+            body = buffer.slice();
+        }
+
+        public boolean isWall(int x, int y) {
+            int bit = x * cols + y;
+            return (body.get(bit >>> 3) & (1 << (bit & 7))) != 0;
+        }
+
+        public synchronized int[][] getGrid() {
+            if (grid == null) {
+                int[][] unpacked = new int[rows][cols];
+                int bit = 0;
+                for (int x = 0; x < rows; x++) {
+                    for (int y = 0; y < cols; y++, bit++) {
+                        unpacked[x][y] = (body.get(bit >>> 3) >> (bit & 7)) & 1;
+                    }
+                }
+                grid = unpacked;
+            }
+            return grid;
+        }
+    }
+}
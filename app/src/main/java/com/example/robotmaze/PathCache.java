@@ -0,0 +1,104 @@
+package com.example.robotmaze;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of routes keyed by (grid hash, start cell, goal cell), so picking a
+ * different start marker or re-processing the same photo does not search again. The budget is
+ * counted in estimated heap bytes per cached path; entries are evicted oldest first once it is
+ * exceeded.
+ */
+public class PathCache {
+
+    public static final long DEFAULT_BUDGET_BYTES = 1024 * 1024;
+
+    // Rough heap cost of a map entry with its key and list, and of one Node plus its list slot.
+    private static final int ENTRY_BYTES = 96;
+    private static final int NODE_BYTES = 24;
+
+    private final long budgetBytes;
+    private final LinkedHashMap<Key, List<PathFinder.Node>> paths = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+    private long hits;
+    private long misses;
+
+    public PathCache() {
+        this(DEFAULT_BUDGET_BYTES);
+    }
+
+    public PathCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /** The cached route, or null on a miss. */
+    public synchronized List<PathFinder.Node> get(long gridHash, int startX, int startY, int endX, int endY) {
+        List<PathFinder.Node> path = paths.get(new Key(gridHash, startX, startY, endX, endY));
+        if (path != null) hits++; else misses++;
+        return path;
+    }
+
+    public synchronized void put(long gridHash, int startX, int startY, int endX, int endY, List<PathFinder.Node> path) {
+        long size = sizeOf(path);
+        if (size > budgetBytes) return;
+        List<PathFinder.Node> previous = paths.put(new Key(gridHash, startX, startY, endX, endY), path);
+        if (previous != null) usedBytes -= sizeOf(previous);
+        usedBytes += size;
+        Iterator<Map.Entry<Key, List<PathFinder.Node>>> eldest = paths.entrySet().iterator();
+        while (usedBytes > budgetBytes) {
+            usedBytes -= sizeOf(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return paths.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized void clear() {
+        paths.clear();
+        usedBytes = 0;
+    }
+
+    private static long sizeOf(List<PathFinder.Node> path) {
+        return ENTRY_BYTES + (long) NODE_BYTES * path.size();
+    }
+
+    private static final class Key {
+        final long gridHash;
+        final int start;
+        final int end;
+
+        Key(long gridHash, int startX, int startY, int endX, int endY) {
+            this.gridHash = gridHash;
+            this.start = startX << 16 | startY;
+            this.end = endX << 16 | endY;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return gridHash == other.gridHash && start == other.start && end == other.end;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (gridHash ^ (gridHash >>> 32)) * 31 * 31 + start * 31 + end;
+        }
+    }
+}
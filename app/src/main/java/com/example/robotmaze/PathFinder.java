@@ -0,0 +1,141 @@
+package com.example.robotmaze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cell-by-cell A* search over the logic grid. Cells are addressed as grid[x][y] where 1 is a wall
+ * and 0 is free space; moves are 4-connected with unit cost.
+ */
+public class PathFinder {
+
+    public enum Backend {
+        A_STAR,
+        CORRIDOR_GRAPH,
+        BIT_PARALLEL_BFS,
+        HIERARCHICAL,
+        FLOW_FIELD
+    }
+
+    private static final int[] DX = {-1, 1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+
+    public static class Node {
+        public final int x;
+        public final int y;
+
+        public Node(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Node)) return false;
+            Node other = (Node) o;
+            return x == other.x && y == other.y;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * x + y;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + x + ", " + y + ")";
+        }
+    }
+
+    public static List<Node> findPath(int[][] grid, int startX, int startY, int endX, int endY) {
+        return findPath(grid, startX, startY, endX, endY, null, null);
+    }
+
+    /**
+     * Like {@link #findPath(int[][], int, int, int, int)}, but gives up and returns null as soon as
+     * no path can cost less than or equal to {@code bestCost}, the cost (moves) of the best path
+     * found so far by searches running alongside. Null means no bound. The number of cells expanded
+     * is added to {@code expandedNodes} unless it is null. Safe to run concurrently on one grid.
+     */
+    public static List<Node> findPath(int[][] grid, int startX, int startY, int endX, int endY, AtomicInteger bestCost,
+                                      AtomicLong expandedNodes) {
+        if (!isFree(grid, startX, startY) || !isFree(grid, endX, endY)) return null;
+
+        int rows = grid.length;
+        int cols = grid[0].length;
+        int start = startX * cols + startY;
+        int end = endX * cols + endY;
+
+        int[] gScore = new int[rows * cols];
+        int[] parent = new int[rows * cols];
+        boolean[] closed = new boolean[rows * cols];
+        Arrays.fill(gScore, Integer.MAX_VALUE);
+        gScore[start] = 0;
+        parent[start] = -1;
+
+        // Entries pack (f-score, cell index) into one long so the queue holds no per-node objects.
+        PriorityQueue<Long> open = new PriorityQueue<>();
+        open.add(pack(manhattan(startX, startY, endX, endY), start));
+
+        int expanded = 0;
+        List<Node> path = null;
+        while (!open.isEmpty()) {
+            long entry = open.poll();
+            // The heuristic is admissible, so the smallest f-score bounds the cost of any path left.
+            if (bestCost != null && (int) (entry >>> 32) > bestCost.get()) break;
+            int current = (int) (entry & 0xFFFFFFFFL);
+            if (closed[current]) continue;
+            if (current == end) {
+                path = buildPath(parent, end, cols);
+                break;
+            }
+            closed[current] = true;
+            expanded++;
+
+            int cx = current / cols;
+            int cy = current % cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (!isFree(grid, nx, ny)) continue;
+                int next = nx * cols + ny;
+                if (closed[next]) continue;
+                int tentative = gScore[current] + 1;
+                if (tentative < gScore[next]) {
+                    gScore[next] = tentative;
+                    parent[next] = current;
+                    open.add(pack(tentative + manhattan(nx, ny, endX, endY), next));
+                }
+            }
+        }
+        if (expandedNodes != null) expandedNodes.addAndGet(expanded);
+        return path;
+    }
+
+    static boolean isFree(int[][] grid, int x, int y) {
+        return x >= 0 && y >= 0 && x < grid.length && y < grid[0].length && grid[x][y] == 0;
+    }
+
+    private static int manhattan(int x1, int y1, int x2, int y2) {
+        return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+    }
+
+    private static long pack(int priority, int cell) {
+        return ((long) priority << 32) | (cell & 0xFFFFFFFFL);
+    }
+
+    private static List<Node> buildPath(int[] parent, int end, int cols) {
+        List<Node> path = new ArrayList<>();
+        for (int cell = end; cell != -1; cell = parent[cell]) {
+            path.add(new Node(cell / cols, cell % cols));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
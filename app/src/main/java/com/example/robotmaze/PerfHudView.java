@@ -0,0 +1,156 @@
+package com.example.robotmaze;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+/**
+ * Translucent text overlay with the stage timings of the last pipeline run, grid size, path
+ * backend, search effort, path length and Bluetooth bytes sent. Paints and the line buffer are
+ * allocated once; onDraw only appends numbers into the reused StringBuilder.
+ *
+ * The setters may be called from any thread. They post the new values to the UI thread, which is
+ * the only thread that reads or writes the displayed fields.
+ */
+public class PerfHudView extends View {
+
+    private static final PipelineMetrics.Stage[] STAGES = PipelineMetrics.Stage.values();
+    private static final int EXTRA_LINES = 5;
+
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint backgroundPaint = new Paint();
+    private final StringBuilder line = new StringBuilder(48);
+    private final float lineHeight;
+    private final float padding;
+
+    private final long[] stageNanos = new long[STAGES.length];
+    private int gridRows;
+    private int gridCols;
+    private String backend = "";
+    private long searchedNodes = -1;
+    private int pathLength;
+    private long bytesSent;
+
+    private final Runnable applyMetrics = () -> {
+        for (int i = 0; i < STAGES.length; i++) {
+            stageNanos[i] = PipelineMetrics.getLastNanos(STAGES[i]);
+        }
+        bytesSent = PipelineMetrics.getBluetoothBytesSent();
+        invalidate();
+    };
+
+    public PerfHudView(Context context) {
+        this(context, null);
+    }
+
+    public PerfHudView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        float textSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 12, getResources().getDisplayMetrics());
+        textPaint.setColor(Color.GREEN);
+        textPaint.setTextSize(textSize);
+        textPaint.setTypeface(Typeface.MONOSPACE);
+        backgroundPaint.setColor(Color.argb(160, 0, 0, 0));
+        lineHeight = textSize * 1.2f;
+        padding = textSize / 2;
+    }
+
+    /** Snapshot of the last processMaze run. */
+    public void setGrid(int rows, int cols) {
+        post(() -> {
+            gridRows = rows;
+            gridCols = cols;
+            searchedNodes = -1;
+            pathLength = 0;
+            applyMetrics.run();
+        });
+    }
+
+    public void setBackend(String backend) {
+        post(() -> {
+            this.backend = backend;
+            applyMetrics.run();
+        });
+    }
+
+    /** {@code searchedNodes} is -1 when the active backend does not report it. */
+    public void setSearch(long searchedNodes, int pathLength) {
+        post(() -> {
+            this.searchedNodes = searchedNodes;
+            this.pathLength = pathLength;
+            applyMetrics.run();
+        });
+    }
+
+    /** Picks up the latest stage timings and Bluetooth byte count. */
+    public void refresh() {
+        post(applyMetrics);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int height = (int) Math.ceil((STAGES.length + EXTRA_LINES) * lineHeight + 2 * padding);
+        setMeasuredDimension(getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+                resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        canvas.drawRect(0, 0, getWidth(), getHeight(), backgroundPaint);
+        float y = padding + lineHeight;
+        long total = 0;
+        for (int i = 0; i < STAGES.length; i++) {
+            line.setLength(0);
+            line.append(STAGES[i].name());
+            pad(10);
+            appendMillis(stageNanos[i]);
+            y = drawLine(canvas, y);
+            if (STAGES[i] != PipelineMetrics.Stage.SEND) total += stageNanos[i];
+        }
+
+        line.setLength(0);
+        line.append("total");
+        pad(10);
+        appendMillis(total);
+        y = drawLine(canvas, y);
+
+        line.setLength(0);
+        line.append("grid      ").append(gridRows).append(" x ").append(gridCols);
+        y = drawLine(canvas, y);
+
+        line.setLength(0);
+        line.append("backend   ").append(backend);
+        y = drawLine(canvas, y);
+
+        line.setLength(0);
+        line.append("searched  ");
+        if (searchedNodes < 0) line.append("n/a"); else line.append(searchedNodes);
+        line.append(", path ").append(pathLength);
+        y = drawLine(canvas, y);
+
+        line.setLength(0);
+        line.append("bt sent   ").append(bytesSent).append(" B");
+        drawLine(canvas, y);
+    }
+
+    private float drawLine(Canvas canvas, float y) {
+        canvas.drawText(line, 0, line.length(), padding, y, textPaint);
+        return y + lineHeight;
+    }
+
+    private void pad(int column) {
+        while (line.length() < column) line.append(' ');
+    }
+
+    private void appendMillis(long nanos) {
+        long hundredths = nanos / 10_000;
+        line.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) line.append('0');
+        line.append(fraction).append(" ms");
+    }
+}
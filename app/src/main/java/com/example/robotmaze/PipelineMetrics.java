@@ -0,0 +1,187 @@
+package com.example.robotmaze;
+
+import android.os.Build;
+import android.os.Trace;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-stage latency of the maze pipeline.
+ *
+ * <pre>
+ * long t = PipelineMetrics.begin(PipelineMetrics.Stage.CLEAN);
+ * try {
+ *     cleaned = MazeCleaner.clean(warpedGray);
+ * } finally {
+ *     PipelineMetrics.end(PipelineMetrics.Stage.CLEAN, t);
+ * }
+ * </pre>
+ *
+ * Timing uses System.nanoTime rather than an OpenCV TickMeter, which would cost a native object
+ * and two JNI calls per sample. Every sample goes into the stage's {@link LatencyHistogram}; the
+ * most recent one is also kept for on-screen display.
+ *
+ * With tracing enabled each stage is also emitted as an android.os.Trace section named
+ * "maze:&lt;stage&gt;", so it shows up in Perfetto/systrace. While disabled the only cost is one
+ * volatile read per begin/end. Always call end() in a finally block, otherwise an exception leaves
+ * the section open for the rest of the trace. Toggle tracing between pipeline runs, never while a
+ * stage is open.
+ */
+public final class PipelineMetrics {
+
+    private static final String TAG = "PipelineMetrics";
+
+    public enum Stage {
+        DECODE,
+        PREPARE,
+        MARKERS,
+        CORNERS,
+        WARP,
+        CLEAN,
+        GRID,
+        SEARCH,
+        RENDER,
+        SEND;
+
+        final String traceName = "maze:" + name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    // Written by the pipeline threads, read by the HUD on the UI thread.
+    private static final AtomicLongArray lastNanos = new AtomicLongArray(STAGES.length);
+    private static final AtomicLong bluetoothBytesSent = new AtomicLong();
+    private static final AtomicInteger asyncCookie = new AtomicInteger();
+    private static volatile boolean tracingEnabled;
+
+    static {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    private PipelineMetrics() {
+    }
+
+    public static void setTracingEnabled(boolean enabled) {
+        tracingEnabled = enabled;
+    }
+
+    public static boolean isTracingEnabled() {
+        return tracingEnabled;
+    }
+
+    public static long begin(Stage stage) {
+        if (tracingEnabled) Trace.beginSection(stage.traceName);
+        return System.nanoTime();
+    }
+
+    public static void end(Stage stage, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        if (tracingEnabled) Trace.endSection();
+        record(stage, nanos);
+    }
+
+    /** Trace section for work that is not a stage of its own, e.g. a whole pipeline run. */
+    public static void beginSection(String name) {
+        if (tracingEnabled) Trace.beginSection(name);
+    }
+
+    public static void endSection() {
+        if (tracingEnabled) Trace.endSection();
+    }
+
+    /**
+     * Starts an async trace section for work handed to another thread. Returns the cookie to pass
+     * to {@link #endAsyncSection}, or 0 if nothing was emitted.
+     */
+    public static int beginAsyncSection(String name) {
+        if (!tracingEnabled || Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) return 0;
+        int cookie = asyncCookie.incrementAndGet();
+        Trace.beginAsyncSection(name, cookie);
+        return cookie;
+    }
+
+    public static void endAsyncSection(String name, int cookie) {
+        if (cookie != 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) Trace.endAsyncSection(name, cookie);
+    }
+
+    public static void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+        lastNanos.set(stage.ordinal(), nanos);
+    }
+
+    public static LatencyHistogram getHistogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /** Duration of the most recent sample of {@code stage}, or 0 if it has not run yet. */
+    public static long getLastNanos(Stage stage) {
+        return lastNanos.get(stage.ordinal());
+    }
+
+    public static void addBluetoothBytesSent(long bytes) {
+        bluetoothBytesSent.addAndGet(bytes);
+    }
+
+    public static long getBluetoothBytesSent() {
+        return bluetoothBytesSent.get();
+    }
+
+    public static void reset() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i].reset();
+            lastNanos.set(i, 0);
+        }
+        bluetoothBytesSent.set(0);
+    }
+
+    public static void dumpToLog() {
+        for (Stage stage : STAGES) {
+            LatencyHistogram h = histograms[stage.ordinal()];
+            if (h.getCount() == 0) continue;
+            Log.i(TAG, String.format(Locale.ROOT, "%-8s n=%d p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms",
+                    stage, h.getCount(), millis(h.getPercentile(50)), millis(h.getPercentile(90)),
+                    millis(h.getPercentile(99)), millis(h.getMax())));
+        }
+    }
+
+    public static String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (Stage stage : STAGES) {
+            LatencyHistogram h = histograms[stage.ordinal()];
+            if (!first) sb.append(',');
+            first = false;
+            sb.append("\n  \"").append(stage.name().toLowerCase(Locale.ROOT)).append("\": {")
+                    .append("\"count\": ").append(h.getCount())
+                    .append(", \"mean_ns\": ").append(h.getMean())
+                    .append(", \"p50_ns\": ").append(h.getPercentile(50))
+                    .append(", \"p90_ns\": ").append(h.getPercentile(90))
+                    .append(", \"p99_ns\": ").append(h.getPercentile(99))
+                    .append(", \"max_ns\": ").append(h.getMax())
+                    .append('}');
+        }
+        return sb.append("\n}\n").toString();
+    }
+
+    public static void writeJson(File file) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
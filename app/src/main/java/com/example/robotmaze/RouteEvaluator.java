@@ -0,0 +1,91 @@
+package com.example.robotmaze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs one search per end marker in parallel. The searches share the cost of the shortest path
+ * found so far and each one stops once it can no longer match it, so only the winner (and any ties)
+ * run to completion. Nearer targets are forked first, as they usually set a tight bound early.
+ */
+final class RouteEvaluator {
+
+    /** A backend query that keeps all its state local, so several may run at once. */
+    interface Search {
+        /**
+         * Path between the cells, or null if there is none or it would cost more than
+         * {@code bestCost}. Adds the nodes it expanded to {@code expandedNodes}.
+         */
+        List<PathFinder.Node> findPath(int startX, int startY, int endX, int endY, AtomicInteger bestCost,
+                                       AtomicLong expandedNodes);
+    }
+
+    private RouteEvaluator() {
+    }
+
+    static Search aStar(int[][] grid) {
+        return (startX, startY, endX, endY, bestCost, expandedNodes) ->
+                PathFinder.findPath(grid, startX, startY, endX, endY, bestCost, expandedNodes);
+    }
+
+    /** A* from the start to every target with no known bound. */
+    static List<List<PathFinder.Node>> evaluate(int[][] grid, int startX, int startY, int[][] targets, ForkJoinPool pool) {
+        return evaluate(startX, startY, targets, Integer.MAX_VALUE, aStar(grid), new AtomicLong(), pool);
+    }
+
+    /**
+     * Returns one entry per target: its path, or null if it is unreachable or longer than the best
+     * one. Paths of equal shortest length are all returned. {@code knownBestCost} is the cost of a
+     * route already known from elsewhere, e.g. a cache. Nodes expanded by all searches are added to
+     * {@code expandedNodes}.
+     */
+    static List<List<PathFinder.Node>> evaluate(int startX, int startY, int[][] targets, int knownBestCost, Search search,
+                                                AtomicLong expandedNodes, ForkJoinPool pool) {
+        List<List<PathFinder.Node>> paths = new ArrayList<>(targets.length);
+        for (int i = 0; i < targets.length; i++) paths.add(null);
+        AtomicInteger bestCost = new AtomicInteger(knownBestCost);
+
+        Integer[] order = new Integer[targets.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(
+                distance(startX, startY, targets[a]), distance(startX, startY, targets[b])));
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<RecursiveAction> searches = new ArrayList<>(order.length);
+                for (int index : order) {
+                    searches.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            int[] target = targets[index];
+                            List<PathFinder.Node> path = search.findPath(startX, startY, target[0], target[1],
+                                    bestCost, expandedNodes);
+                            if (path != null) {
+                                bestCost.accumulateAndGet(path.size() - 1, Math::min);
+                                paths.set(index, path);
+                            }
+                        }
+                    });
+                }
+                invokeAll(searches);
+            }
+        });
+
+        // A search that finished before a shorter one lowered the bound is dropped here.
+        int best = bestCost.get();
+        for (int i = 0; i < paths.size(); i++) {
+            if (paths.get(i) != null && paths.get(i).size() - 1 > best) paths.set(i, null);
+        }
+        return paths;
+    }
+
+    private static int distance(int x, int y, int[] target) {
+        return Math.abs(x - target[0]) + Math.abs(y - target[1]);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.robotmaze;
+
+import android.app.Activity;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * Startup milestones, logged once each under the "StartupMetrics" tag:
+ * <pre>
+ * time-to-first-preview-frame: 612 ms
+ * time-to-first-processed-grid: 931 ms (processing 688 ms)
+ * </pre>
+ * The preview milestone is measured from process start and also calls reportFullyDrawn(), so the
+ * StartupTimingMetric in the :benchmark module records it as time to full display. The grid
+ * milestone is measured from the first Process tap, so it covers any wait for OpenCV to finish
+ * loading plus the pipeline itself, but not the time the operator spends framing the shot.
+ */
+final class StartupMetrics {
+
+    private static final String TAG = "StartupMetrics";
+
+    private static boolean firstPreviewFrameReported;
+    private static boolean firstProcessedGridReported;
+    private static long processRequestedNanos;
+
+    private StartupMetrics() {
+    }
+
+    static long millisSinceProcessStart() {
+        return SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+    }
+
+    static void onPreviewStreaming(Activity activity) {
+        if (firstPreviewFrameReported) return;
+        firstPreviewFrameReported = true;
+        Log.i(TAG, "time-to-first-preview-frame: " + millisSinceProcessStart() + " ms");
+        activity.reportFullyDrawn();
+    }
+
+    /** Call when the operator taps Process, before waiting for OpenCV. */
+    static void onProcessRequested() {
+        if (processRequestedNanos == 0) processRequestedNanos = System.nanoTime();
+    }
+
+    static void onGridProcessed(long processingNanos) {
+        if (firstProcessedGridReported || processRequestedNanos == 0) return;
+        firstProcessedGridReported = true;
+        Log.i(TAG, "time-to-first-processed-grid: " + (System.nanoTime() - processRequestedNanos) / 1_000_000
+                + " ms (processing " + processingNanos / 1_000_000 + " ms)");
+    }
+}
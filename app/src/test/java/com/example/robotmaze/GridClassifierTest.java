@@ -0,0 +1,38 @@
+package com.example.robotmaze;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class GridClassifierTest {
+
+    @Test
+    public void matchesSequentialCellCount() {
+        Random random = new Random(7);
+        int width = 203, height = 157, cellSize = 6;
+        byte[] pixels = new byte[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(100) < 40 ? (byte) 255 : 0;
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int[][] grid = GridClassifier.classify(pixels, width, height, cellSize, 0.4, pool);
+        pool.shutdown();
+
+        assertEquals(height / cellSize, grid.length);
+        assertEquals(width / cellSize, grid[0].length);
+        for (int r = 0; r < grid.length; r++) {
+            for (int c = 0; c < grid[0].length; c++) {
+                int count = 0;
+                for (int y = r * cellSize; y < (r + 1) * cellSize; y++) {
+                    for (int x = c * cellSize; x < (c + 1) * cellSize; x++) {
+                        if (pixels[y * width + x] != 0) count++;
+                    }
+                }
+                assertEquals("cell " + r + "," + c, count > cellSize * cellSize * 0.4 ? 1 : 0, grid[r][c]);
+            }
+        }
+    }
+}
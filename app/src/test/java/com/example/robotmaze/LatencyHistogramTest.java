@@ -0,0 +1,51 @@
+package com.example.robotmaze;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsAreContiguousAndCoverTheirValues() {
+        long previousUpper = -1;
+        for (int b = 0; b <= LatencyHistogram.bucketOf(Long.MAX_VALUE); b++) {
+            long upper = LatencyHistogram.upperBoundOf(b);
+            assertEquals(b, LatencyHistogram.bucketOf(previousUpper + 1));
+            assertEquals(b, LatencyHistogram.bucketOf(upper));
+            previousUpper = upper;
+        }
+        assertEquals(Long.MAX_VALUE, previousUpper);
+    }
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i * 1000L);
+        }
+        assertEquals(1000, h.getCount());
+        assertEquals(1_000_000, h.getMax());
+        assertEquals(1000, h.getMin());
+        assertEquals(500_500, h.getMean());
+        assertWithin(500_000, h.getPercentile(50));
+        assertWithin(900_000, h.getPercentile(90));
+        assertWithin(990_000, h.getPercentile(99));
+        assertEquals(1_000_000, h.getPercentile(100));
+    }
+
+    @Test
+    public void emptyAndReset() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getPercentile(50));
+        h.record(42);
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMax());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual + " not within 12.5% of " + expected,
+                actual >= expected && actual <= expected * 1.125);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.robotmaze;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class MazeStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripsGridAndHeader() throws Exception {
+        Random random = new Random(11);
+        int[][] grid = new int[13][17];
+        for (int[] row : grid) {
+            for (int c = 0; c < row.length; c++) row[c] = random.nextInt(2);
+        }
+        double[] homography = {1.5, 0, -20, 0, 1.5, -35, 0, 0.001, 1};
+        int[][] markers = {{1, 2}, {12, 16}};
+        MazeStore store = new MazeStore(folder.getRoot());
+
+        File file = store.save(grid, GridHash.of(grid), 6, 102, 78, homography, markers);
+        MazeStore.StoredMaze maze = MazeStore.load(file);
+
+        assertEquals(13, maze.rows);
+        assertEquals(17, maze.cols);
+        assertEquals(6, maze.cellSize);
+        assertEquals(102, maze.imageWidth);
+        assertEquals(78, maze.imageHeight);
+        assertEquals(GridHash.of(grid), maze.gridHash);
+        assertArrayEquals(homography, maze.homography, 0);
+        assertArrayEquals(markers, maze.markers);
+        assertArrayEquals(grid, maze.getGrid());
+        assertEquals(grid[4][9] == 1, maze.isWall(4, 9));
+    }
+
+    @Test
+    public void keepsOneFilePerGridAndTrimsOldest() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        MazeStore store = new MazeStore(folder.getRoot(), 2, clock::incrementAndGet);
+        int[][] a = {{1, 0}, {0, 0}};
+        int[][] b = {{0, 1}, {0, 0}};
+        int[][] c = {{0, 0}, {1, 0}};
+
+        save(store, a);
+        save(store, a);
+        assertEquals(1, folder.getRoot().list().length);
+
+        save(store, b);
+        save(store, c);
+        assertHashes(store.list(), c, b);
+
+        // Saving a grid again makes it the newest, so the oldest other grid goes instead.
+        save(store, a);
+        assertHashes(store.list(), a, c);
+        assertEquals(2, folder.getRoot().list().length);
+    }
+
+    private static void save(MazeStore store, int[][] grid) throws Exception {
+        int[][] markers = {{0, 0}, {1, 1}};
+        double[] identity = {1, 0, 0, 0, 1, 0, 0, 0, 1};
+        store.save(grid, GridHash.of(grid), 4, 8, 8, identity, markers);
+    }
+
+    private static void assertHashes(List<MazeStore.StoredMaze> mazes, int[][]... newestFirst) {
+        assertEquals(newestFirst.length, mazes.size());
+        for (int i = 0; i < newestFirst.length; i++) {
+            assertEquals(GridHash.of(newestFirst[i]), mazes.get(i).gridHash);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.robotmaze;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class PathCacheTest {
+
+    @Test
+    public void evictsLeastRecentlyUsedWithinBudget() {
+        List<PathFinder.Node> longPath = straightPath(10);
+        List<PathFinder.Node> shortPath = straightPath(5);
+        PathCache cache = new PathCache(2 * 96 + 24 * 15);
+
+        cache.put(1, 0, 0, 9, 0, longPath);
+        cache.put(1, 0, 0, 4, 0, shortPath);
+        assertEquals(2, cache.size());
+        assertSame(longPath, cache.get(1, 0, 0, 9, 0));
+
+        cache.put(2, 0, 0, 1, 0, straightPath(2));
+        assertNull(cache.get(1, 0, 0, 4, 0));
+        assertSame(longPath, cache.get(1, 0, 0, 9, 0));
+        assertTrue(cache.getUsedBytes() <= 2 * 96 + 24 * 15);
+        assertNull(cache.get(3, 0, 0, 9, 0));
+    }
+
+    @Test
+    public void gridHashIsBuiltWhileClassifying() {
+        Random random = new Random(3);
+        int width = 300, height = 200, cellSize = 5;
+        byte[] pixels = new byte[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(3) == 0 ? (byte) 255 : 0;
+        }
+        long[] rowHashes = new long[height / cellSize];
+        ForkJoinPool pool = new ForkJoinPool(3);
+        int[][] grid = GridClassifier.classify(pixels, width, height, cellSize, 0.4, pool, rowHashes);
+        pool.shutdown();
+
+        long hash = GridHash.combine(rowHashes, width / cellSize);
+        assertEquals(GridHash.of(grid), hash);
+        grid[7][41] ^= 1;
+        assertNotEquals(hash, GridHash.of(grid));
+    }
+
+    private static List<PathFinder.Node> straightPath(int length) {
+        List<PathFinder.Node> path = new ArrayList<>();
+        for (int i = 0; i < length; i++) path.add(new PathFinder.Node(i, 0));
+        return path;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.robotmaze;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class PathFinderTest {
+
+    private static final int[][] MAZE = {
+            {1, 1, 1, 1, 1, 1, 1},
+            {1, 0, 0, 0, 1, 0, 1},
+            {1, 0, 1, 0, 1, 0, 1},
+            {1, 0, 1, 0, 0, 0, 1},
+            {1, 0, 1, 1, 1, 0, 1},
+            {1, 0, 0, 0, 1, 0, 1},
+            {1, 1, 1, 1, 1, 1, 1},
+    };
+
+    @Test
+    public void aStar_findsShortestPath() {
+        List<PathFinder.Node> path = PathFinder.findPath(MAZE, 5, 1, 5, 5);
+        assertNotNull(path);
+        assertEquals(13, path.size());
+        assertValid(path, 5, 1, 5, 5);
+    }
+
+    @Test
+    public void aStar_returnsNullWhenBlocked() {
+        assertNull(PathFinder.findPath(MAZE, 1, 1, 0, 0));
+    }
+
+    @Test
+    public void corridorGraph_matchesAStar() {
+        int[][] markers = {{5, 1}, {5, 5}, {5, 3}};
+        CorridorGraph graph = CorridorGraph.build(MAZE, markers);
+        assertTrue(graph.getNodeCount() < 10);
+
+        List<PathFinder.Node> path = graph.findPath(5, 1, 5, 5);
+        assertNotNull(path);
+        assertEquals(PathFinder.findPath(MAZE, 5, 1, 5, 5).size(), path.size());
+        assertValid(path, 5, 1, 5, 5);
+
+        List<PathFinder.Node> toDeadEnd = graph.findPath(5, 1, 5, 3);
+        assertNotNull(toDeadEnd);
+        assertValid(toDeadEnd, 5, 1, 5, 3);
+    }
+
+    @Test
+    public void bitParallelBfs_matchesAStar() {
+        BitParallelBfs bfs = new BitParallelBfs(MAZE);
+        List<PathFinder.Node> path = bfs.findPath(5, 1, 5, 5);
+        assertNotNull(path);
+        assertEquals(13, path.size());
+        assertEquals(12, bfs.getLastLayerCount());
+        assertValid(path, 5, 1, 5, 5);
+
+        assertNull(bfs.findPath(1, 1, 0, 0));
+        assertEquals(1, bfs.findPath(3, 3, 3, 3).size());
+    }
+
+    @Test
+    public void hierarchical_findsShortestPathAcrossClusters() {
+        HierarchicalPathFinder finder = new HierarchicalPathFinder(MAZE, 3);
+        assertTrue(finder.getAbstractNodeCount() > 0);
+
+        List<PathFinder.Node> path = finder.findPath(5, 1, 5, 5);
+        assertNotNull(path);
+        assertEquals(PathFinder.findPath(MAZE, 5, 1, 5, 5).size(), path.size());
+        assertValid(path, 5, 1, 5, 5);
+
+        List<PathFinder.Node> other = finder.findPath(1, 5, 5, 3);
+        assertNotNull(other);
+        assertEquals(PathFinder.findPath(MAZE, 1, 5, 5, 3).size(), other.size());
+        assertValid(other, 1, 5, 5, 3);
+        assertNull(finder.findPath(1, 1, 0, 0));
+    }
+
+    @Test
+    public void flowField_reusesFieldPerTarget() {
+        FlowFieldCache cache = new FlowFieldCache(MAZE);
+        List<PathFinder.Node> path = cache.route(5, 1, 5, 5);
+        assertNotNull(path);
+        assertEquals(13, path.size());
+        assertValid(path, 5, 1, 5, 5);
+
+        assertValid(cache.route(5, 3, 5, 5), 5, 3, 5, 5);
+        assertEquals(1, cache.getFieldsBuilt());
+        assertNull(cache.route(1, 1, 0, 0));
+    }
+
+    @Test
+    public void flowField_evictsLeastRecentlyUsed() {
+        FlowFieldCache cache = new FlowFieldCache(MAZE, 2L * MAZE.length * MAZE[0].length);
+        cache.route(1, 1, 5, 5);
+        cache.route(1, 1, 5, 3);
+        cache.route(1, 1, 5, 5);
+        cache.route(1, 1, 1, 5);
+        assertEquals(2, cache.getCachedFieldCount());
+        cache.route(5, 1, 5, 5);
+        assertEquals(3, cache.getFieldsBuilt());
+        cache.route(5, 1, 5, 3);
+        assertEquals(4, cache.getFieldsBuilt());
+    }
+
+    @Test
+    public void routeEvaluator_keepsOnlyShortestRoute() {
+        int[][] targets = {{5, 5}, {5, 3}, {0, 0}, {1, 5}};
+        ForkJoinPool pool = new ForkJoinPool(2);
+        List<List<PathFinder.Node>> paths = RouteEvaluator.evaluate(MAZE, 5, 1, targets, pool);
+        pool.shutdown();
+
+        assertEquals(targets.length, paths.size());
+        assertNull(paths.get(0));
+        assertEquals(3, paths.get(1).size());
+        assertValid(paths.get(1), 5, 1, 5, 3);
+        assertNull(paths.get(2));
+        assertNull(paths.get(3));
+    }
+
+    @Test
+    public void aStar_stopsWhenBoundCannotBeMatched() {
+        assertNull(PathFinder.findPath(MAZE, 5, 1, 5, 5, new AtomicInteger(11), null));
+        AtomicLong expanded = new AtomicLong();
+        assertEquals(13, PathFinder.findPath(MAZE, 5, 1, 5, 5, new AtomicInteger(12), expanded).size());
+        assertTrue(expanded.get() >= 13);
+    }
+
+    @Test
+    public void routeEvaluator_runsCorridorGraphInParallel() {
+        int[][] markers = {{5, 1}, {5, 5}, {5, 3}};
+        CorridorGraph graph = CorridorGraph.build(MAZE, markers);
+        int[][] targets = {{5, 5}, {5, 3}};
+        ForkJoinPool pool = new ForkJoinPool(2);
+        AtomicLong expanded = new AtomicLong();
+        List<List<PathFinder.Node>> paths = RouteEvaluator.evaluate(5, 1, targets, Integer.MAX_VALUE,
+                graph::findPath, expanded, pool);
+        pool.shutdown();
+
+        assertNull(paths.get(0));
+        assertEquals(3, paths.get(1).size());
+        assertValid(paths.get(1), 5, 1, 5, 3);
+        assertTrue(expanded.get() > 0);
+    }
+
+    @Test
+    public void gridComponents_labelsDisconnectedRegions() {
+        int[][] grid = {
+                {0, 0, 1, 0},
+                {0, 1, 1, 0},
+                {1, 1, 0, 0},
+        };
+        GridComponents components = GridComponents.label(grid);
+        assertEquals(2, components.getComponentCount());
+        assertEquals(3, components.getComponentSize(components.labelOf(0, 0)));
+        assertEquals(4, components.getComponentSize(components.labelOf(2, 2)));
+        assertTrue(components.isConnected(0, 3, 2, 2));
+        assertFalse(components.isConnected(0, 0, 0, 3));
+        assertFalse(components.isConnected(0, 0, 1, 1));
+    }
+
+    static void assertValid(List<PathFinder.Node> path, int startX, int startY, int endX, int endY) {
+        assertEquals(new PathFinder.Node(startX, startY), path.get(0));
+        assertEquals(new PathFinder.Node(endX, endY), path.get(path.size() - 1));
+        for (int i = 0; i < path.size(); i++) {
+            PathFinder.Node node = path.get(i);
+            assertEquals(0, MAZE[node.x][node.y]);
+            if (i > 0) {
+                PathFinder.Node prev = path.get(i - 1);
+                assertEquals(1, Math.abs(node.x - prev.x) + Math.abs(node.y - prev.y));
+            }
+        }
+    }
+}
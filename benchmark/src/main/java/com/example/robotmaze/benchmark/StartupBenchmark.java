@@ -0,0 +1,69 @@
+package com.example.robotmaze.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Cold start of MainActivity with and without the shipped baseline profile. StartupTimingMetric
+ * reports time to initial display and, through the reportFullyDrawn() call on the first camera
+ * preview frame, time to full display.
+ *
+ * Run with {@code ./gradlew :benchmark:connectedBenchmarkAndroidTest} on a physical device.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+    private static final String PACKAGE_NAME = "com.example.robotmaze";
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void startupWithoutCompilation() {
+        startup(new CompilationMode.None());
+    }
+
+    @Test
+    public void startupWithBaselineProfile() {
+        startup(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void startup(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+                PACKAGE_NAME,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    // Without the camera permission the preview never streams and full display is
+                    // never reported.
+                    try {
+                        scope.getDevice().executeShellCommand("pm grant " + PACKAGE_NAME + " android.permission.CAMERA");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import org.opencv.BuildConfig;
 import org.opencv.R;
 import org.opencv.core.Core;
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.opencv.core.Size;
 
@@ -196,25 +197,83 @@ public abstract class CameraBridgeViewBase extends SurfaceView implements Surfac
         public void release();
     };
 
+    /**
+     * Frame as it should appear on screen, i.e. the camera frame rotated by the sensor/display
+     * rotation. The rotated copies are only made when gray() or rgba() is requested and are cached
+     * until {@link #invalidate()} is called for the next frame. Consumers that warp the image anyway
+     * can use rawRgba()/rawGray() together with {@link #getRotationTransform()} and fold the
+     * rotation into their own warp, which avoids the full-frame rotate entirely.
+     */
     public class RotatedCameraFrame implements CvCameraViewFrame {
         @Override
         public Mat gray() {
-            if (mRotation != 0) {
-                Core.rotate(mFrame.gray(), mGrayRotated, getCvRotationCode(mRotation));
-                return mGrayRotated;
-            } else {
+            if (mRotation == 0)
                 return mFrame.gray();
+            if (!mGrayValid) {
+                Core.rotate(mFrame.gray(), mGrayRotated, getCvRotationCode(mRotation));
+                mGrayValid = true;
             }
+            return mGrayRotated;
         }
 
         @Override
         public Mat rgba() {
-            if (mRotation != 0) {
-                Core.rotate(mFrame.rgba(), mRgbaRotated, getCvRotationCode(mRotation));
-                return mRgbaRotated;
-            } else {
+            if (mRotation == 0)
                 return mFrame.rgba();
+            if (!mRgbaValid) {
+                Core.rotate(mFrame.rgba(), mRgbaRotated, getCvRotationCode(mRotation));
+                mRgbaValid = true;
             }
+            return mRgbaRotated;
+        }
+
+        /** Unrotated gray frame, in sensor orientation. */
+        public Mat rawGray() {
+            return mFrame.gray();
+        }
+
+        /** Unrotated RGBA frame, in sensor orientation. */
+        public Mat rawRgba() {
+            return mFrame.rgba();
+        }
+
+        /** Clockwise rotation in degrees (0, 90, 180 or 270) from the raw frame to gray()/rgba(). */
+        public int getRotation() {
+            return mRotation;
+        }
+
+        /**
+         * 3x3 CV_64F homography mapping raw frame pixel coordinates to coordinates in gray()/rgba().
+         * For a perspective transform M defined on the rotated frame, warping the raw frame with
+         * M * getRotationTransform() gives the same result as warping the rotated frame with M.
+         * The returned Mat is owned by the frame; do not release it.
+         */
+        public Mat getRotationTransform() {
+            Mat raw = mFrame.gray();
+            int w = raw.cols();
+            int h = raw.rows();
+            if (mTransformWidth != w || mTransformHeight != h) {
+                double[] m;
+                if (mRotation == 90) {
+                    m = new double[] { 0, -1, h - 1,  1, 0, 0,  0, 0, 1 };
+                } else if (mRotation == 180) {
+                    m = new double[] { -1, 0, w - 1,  0, -1, h - 1,  0, 0, 1 };
+                } else if (mRotation == 270) {
+                    m = new double[] { 0, 1, 0,  -1, 0, w - 1,  0, 0, 1 };
+                } else {
+                    m = new double[] { 1, 0, 0,  0, 1, 0,  0, 0, 1 };
+                }
+                mTransform.put(0, 0, m);
+                mTransformWidth = w;
+                mTransformHeight = h;
+            }
+            return mTransform;
+        }
+
+        /** Marks the cached rotated copies stale; call whenever the underlying frame changes. */
+        public void invalidate() {
+            mGrayValid = false;
+            mRgbaValid = false;
         }
 
         private int getCvRotationCode(int degrees) {
@@ -232,6 +291,7 @@ public abstract class CameraBridgeViewBase extends SurfaceView implements Surfac
             mFrame = frame;
             mRgbaRotated = new Mat();
             mGrayRotated = new Mat();
+            mTransform = new Mat(3, 3, CvType.CV_64FC1);
             mRotation = rotation;
         }
 
@@ -239,11 +299,17 @@ public abstract class CameraBridgeViewBase extends SurfaceView implements Surfac
         public void release() {
             mRgbaRotated.release();
             mGrayRotated.release();
+            mTransform.release();
         }
 
         public CvCameraViewFrame mFrame;
         private Mat mRgbaRotated;
         private Mat mGrayRotated;
+        private boolean mRgbaValid;
+        private boolean mGrayValid;
+        private Mat mTransform;
+        private int mTransformWidth = -1;
+        private int mTransformHeight = -1;
         private int mRotation;
     };
 
@@ -56,6 +56,8 @@ public class JavaCamera2View extends CameraBridgeViewBase {
 
     private HandlerThread mBackgroundThread;
     protected Handler mBackgroundHandler;
+    private JavaCamera2Frame mCameraFrame;
+    private RotatedCameraFrame mRotatedFrame;
 
     public JavaCamera2View(Context context, int cameraId) {
         super(context, cameraId);
@@ -214,10 +216,14 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                     assert (planes.length == 3);
                     assert (image.getFormat() == mPreviewFormat);
 
-                    RotatedCameraFrame tempFrame = new RotatedCameraFrame(new JavaCamera2Frame(image), mFrameRotation);
-                    deliverAndDrawFrame(tempFrame);
-                    tempFrame.mFrame.release();
-                    tempFrame.release();
+                    if (mCameraFrame == null) {
+                        mCameraFrame = new JavaCamera2Frame();
+                        mRotatedFrame = new RotatedCameraFrame(mCameraFrame, mFrameRotation);
+                    }
+                    mCameraFrame.setImage(image);
+                    mRotatedFrame.invalidate();
+                    deliverAndDrawFrame(mRotatedFrame);
+                    mCameraFrame.finishImage();
                     image.close();
                 }
             }, mBackgroundHandler);
@@ -252,6 +258,12 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                 mImageReader.close();
                 mImageReader = null;
             }
+            if (null != mCameraFrame) {
+                mRotatedFrame.release();
+                mRotatedFrame = null;
+                mCameraFrame.release();
+                mCameraFrame = null;
+            }
         }
         Log.i(LOGTAG, "camera closed!");
     }
@@ -351,21 +363,30 @@ public class JavaCamera2View extends CameraBridgeViewBase {
         return true;
     }
 
+    /**
+     * View of the Image currently being delivered. A single instance is reused for the whole camera
+     * session: the I420 staging buffer and the output Mats persist across frames and are only
+     * reallocated when the preview size changes, while the zero-copy plane headers live for one
+     * frame and are released by {@link #finishImage()}.
+     */
     private class JavaCamera2Frame implements CvCameraViewFrame {
         @Override
         public Mat gray() {
-            Image.Plane[] planes = mImage.getPlanes();
-            int w = mImage.getWidth();
-            int h = mImage.getHeight();
-            assert(planes[0].getPixelStride() == 1);
-            ByteBuffer y_plane = planes[0].getBuffer();
-            int y_plane_step = planes[0].getRowStride();
-            mGray = new Mat(h, w, CvType.CV_8UC1, y_plane, y_plane_step);
+            if (mGray == null) {
+                Image.Plane[] planes = mImage.getPlanes();
+                assert(planes[0].getPixelStride() == 1);
+                ByteBuffer y_plane = planes[0].getBuffer();
+                int y_plane_step = planes[0].getRowStride();
+                mGray = new Mat(mImage.getHeight(), mImage.getWidth(), CvType.CV_8UC1, y_plane, y_plane_step);
+            }
             return mGray;
         }
 
         @Override
         public Mat rgba() {
+            if (mRgbaValid)
+                return mRgba;
+
             Image.Plane[] planes = mImage.getPlanes();
             int w = mImage.getWidth();
             int h = mImage.getHeight();
@@ -375,13 +396,11 @@ public class JavaCamera2View extends CameraBridgeViewBase {
             if (chromaPixelStride == 2) { // Chroma channels are interleaved
                 assert(planes[0].getPixelStride() == 1);
                 assert(planes[2].getPixelStride() == 2);
-                ByteBuffer y_plane = planes[0].getBuffer();
-                int y_plane_step = planes[0].getRowStride();
                 ByteBuffer uv_plane1 = planes[1].getBuffer();
                 int uv_plane1_step = planes[1].getRowStride();
                 ByteBuffer uv_plane2 = planes[2].getBuffer();
                 int uv_plane2_step = planes[2].getRowStride();
-                Mat y_mat = new Mat(h, w, CvType.CV_8UC1, y_plane, y_plane_step);
+                Mat y_mat = gray();
                 Mat uv_mat1 = new Mat(h / 2, w / 2, CvType.CV_8UC2, uv_plane1, uv_plane1_step);
                 Mat uv_mat2 = new Mat(h / 2, w / 2, CvType.CV_8UC2, uv_plane2, uv_plane2_step);
                 long addr_diff = uv_mat2.dataAddr() - uv_mat1.dataAddr();
@@ -392,9 +411,11 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                     assert(addr_diff == -1);
                     Imgproc.cvtColorTwoPlane(y_mat, uv_mat2, mRgba, Imgproc.COLOR_YUV2RGBA_NV21);
                 }
-                return mRgba;
+                uv_mat1.release();
+                uv_mat2.release();
             } else { // Chroma channels are not interleaved
-                byte[] yuv_bytes = new byte[w*(h+h/2)];
+                allocateYuvBuffer(w, h);
+                byte[] yuv_bytes = mYuvBytes;
                 ByteBuffer y_plane = planes[0].getBuffer();
                 ByteBuffer u_plane = planes[1].getBuffer();
                 ByteBuffer v_plane = planes[2].getBuffer();
@@ -444,29 +465,62 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                     }
                 }
 
-                Mat yuv_mat = new Mat(h+h/2, w, CvType.CV_8UC1);
-                yuv_mat.put(0, 0, yuv_bytes);
-                Imgproc.cvtColor(yuv_mat, mRgba, Imgproc.COLOR_YUV2RGBA_I420, 4);
-                return mRgba;
+                mYuvMat.put(0, 0, yuv_bytes);
+                Imgproc.cvtColor(mYuvMat, mRgba, Imgproc.COLOR_YUV2RGBA_I420, 4);
             }
+            mRgbaValid = true;
+            return mRgba;
         }
 
+        private void allocateYuvBuffer(int w, int h) {
+            if (mYuvBytes != null && mYuvWidth == w && mYuvHeight == h)
+                return;
+            Log.d(LOGTAG, "Allocating I420 staging buffer " + w + "x" + h);
+            if (mYuvMat != null)
+                mYuvMat.release();
+            mYuvBytes = new byte[w*(h+h/2)];
+            mYuvMat = new Mat(h+h/2, w, CvType.CV_8UC1);
+            mYuvWidth = w;
+            mYuvHeight = h;
+        }
 
-        public JavaCamera2Frame(Image image) {
+        public JavaCamera2Frame() {
             super();
-            mImage = image;
             mRgba = new Mat();
-            mGray = new Mat();
+        }
+
+        public void setImage(Image image) {
+            mImage = image;
+            mRgbaValid = false;
+        }
+
+        /** Drops the headers that point into the current Image; call before the Image is closed. */
+        public void finishImage() {
+            if (mGray != null) {
+                mGray.release();
+                mGray = null;
+            }
+            mImage = null;
         }
 
         @Override
         public void release() {
+            finishImage();
             mRgba.release();
-            mGray.release();
+            if (mYuvMat != null) {
+                mYuvMat.release();
+                mYuvMat = null;
+            }
+            mYuvBytes = null;
         }
 
         private Image mImage;
         private Mat mRgba;
+        private boolean mRgbaValid;
         private Mat mGray;
+        private byte[] mYuvBytes;
+        private Mat mYuvMat;
+        private int mYuvWidth;
+        private int mYuvHeight;
     };
 }
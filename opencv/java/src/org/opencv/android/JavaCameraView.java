@@ -1,6 +1,8 @@
 package org.opencv.android;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import android.content.Context;
 import android.graphics.ImageFormat;
@@ -35,11 +37,27 @@ public class JavaCameraView extends CameraBridgeViewBase implements PreviewCallb
     private static final int MAGIC_TEXTURE_ID = 10;
     private static final String TAG = "JavaCameraView";
 
+    private static final int FRAME_INDEX_MASK = 0x3;
+    private static final int FRAME_FRESH = 0x4;
+
     private byte mBuffer[];
     private Mat[] mFrameChain;
-    private int mChainIdx = 0;
-    private Thread mThread;
-    private boolean mStopThread;
+    private long[] mFrameTimestamps;
+    /*
+     * Triple buffer: the camera callback only writes mFrameChain[mBackIdx], the worker only reads
+     * mFrameChain[mFrontIdx], and the third slot is parked in mMiddle together with a FRAME_FRESH
+     * bit. Each side swaps its slot with the middle one, so neither ever waits for the other.
+     */
+    private final AtomicInteger mMiddle = new AtomicInteger();
+    private int mBackIdx;
+    private int mFrontIdx;
+    private volatile Thread mThread;
+    private volatile boolean mStopThread;
+
+    private volatile long mDroppedFrames;
+    private volatile long mDeliveredFrames;
+    private volatile long mHandoffLatencyTotalNs;
+    private volatile long mHandoffLatencyMaxNs;
 
     protected Camera mCamera;
     protected RotatedCameraFrame[] mCameraFrame;
@@ -204,16 +222,19 @@ public class JavaCameraView extends CameraBridgeViewBase implements PreviewCallb
                     mCamera.addCallbackBuffer(mBuffer);
                     mCamera.setPreviewCallbackWithBuffer(this);
 
-                    mFrameChain = new Mat[2];
-                    mFrameChain[0] = new Mat(rawFrameHeight + (rawFrameHeight/2), rawFrameWidth, CvType.CV_8UC1);
-                    mFrameChain[1] = new Mat(rawFrameHeight + (rawFrameHeight/2), rawFrameWidth, CvType.CV_8UC1);
+                    mFrameChain = new Mat[3];
+                    mFrameTimestamps = new long[3];
+                    mCameraFrame = new RotatedCameraFrame[3];
+                    for (int i = 0; i < 3; i++) {
+                        mFrameChain[i] = new Mat(rawFrameHeight + (rawFrameHeight/2), rawFrameWidth, CvType.CV_8UC1);
+                        mCameraFrame[i] = new RotatedCameraFrame(new JavaCameraFrame(mFrameChain[i], rawFrameWidth, rawFrameHeight), frameRotation);
+                    }
+                    mBackIdx = 0;
+                    mMiddle.set(1);
+                    mFrontIdx = 2;
 
                     AllocateCache();
 
-                    mCameraFrame = new RotatedCameraFrame[2];
-                    mCameraFrame[0] = new RotatedCameraFrame(new JavaCameraFrame(mFrameChain[0], rawFrameWidth, rawFrameHeight), frameRotation);
-                    mCameraFrame[1] = new RotatedCameraFrame(new JavaCameraFrame(mFrameChain[1], rawFrameWidth, rawFrameHeight), frameRotation);
-
                     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
                         mSurfaceTexture = new SurfaceTexture(MAGIC_TEXTURE_ID);
                         mCamera.setPreviewTexture(mSurfaceTexture);
@@ -245,20 +266,18 @@ public class JavaCameraView extends CameraBridgeViewBase implements PreviewCallb
             }
             mCamera = null;
             if (mFrameChain != null) {
-                mFrameChain[0].release();
-                mFrameChain[1].release();
+                for (Mat m : mFrameChain)
+                    m.release();
             }
             if (mCameraFrame != null) {
-                mCameraFrame[0].mFrame.release();
-                mCameraFrame[0].release();
-                mCameraFrame[1].mFrame.release();
-                mCameraFrame[1].release();
+                for (RotatedCameraFrame f : mCameraFrame) {
+                    f.mFrame.release();
+                    f.release();
+                }
             }
         }
     }
 
-    private boolean mCameraFrameReady = false;
-
     @Override
     protected boolean connectCamera(int width, int height) {
 
@@ -270,7 +289,7 @@ public class JavaCameraView extends CameraBridgeViewBase implements PreviewCallb
         if (!initializeCamera(width, height))
             return false;
 
-        mCameraFrameReady = false;
+        resetFrameStats();
 
         /* now we can start update thread */
         Log.d(TAG, "Starting processing thread");
@@ -290,12 +309,12 @@ public class JavaCameraView extends CameraBridgeViewBase implements PreviewCallb
         try {
             mStopThread = true;
             Log.d(TAG, "Notify thread");
-            synchronized (this) {
-                this.notify();
+            Thread worker = mThread;
+            if (worker != null) {
+                LockSupport.unpark(worker);
+                Log.d(TAG, "Waiting for thread");
+                worker.join();
             }
-            Log.d(TAG, "Waiting for thread");
-            if (mThread != null)
-                mThread.join();
         } catch (InterruptedException e) {
             e.printStackTrace();
         } finally {
@@ -305,17 +324,52 @@ public class JavaCameraView extends CameraBridgeViewBase implements PreviewCallb
         /* Now release camera */
         releaseCamera();
 
-        mCameraFrameReady = false;
+        Log.d(TAG, "Frames delivered: " + mDeliveredFrames + ", dropped: " + mDroppedFrames
+                + ", mean handoff latency: " + getMeanHandoffLatencyNanos() / 1000 + " us");
+    }
+
+    /** Frames overwritten by the camera before the worker picked them up. */
+    public long getDroppedFrameCount() {
+        return mDroppedFrames;
+    }
+
+    public long getDeliveredFrameCount() {
+        return mDeliveredFrames;
+    }
+
+    /** Mean time between a frame being published by the camera callback and taken by the worker. */
+    public long getMeanHandoffLatencyNanos() {
+        long delivered = mDeliveredFrames;
+        return delivered == 0 ? 0 : mHandoffLatencyTotalNs / delivered;
+    }
+
+    public long getMaxHandoffLatencyNanos() {
+        return mHandoffLatencyMaxNs;
+    }
+
+    public void resetFrameStats() {
+        mDroppedFrames = 0;
+        mDeliveredFrames = 0;
+        mHandoffLatencyTotalNs = 0;
+        mHandoffLatencyMaxNs = 0;
     }
 
     @Override
     public void onPreviewFrame(byte[] frame, Camera arg1) {
         if (BuildConfig.DEBUG)
             Log.d(TAG, "Preview Frame received. Frame size: " + frame.length);
-        synchronized (this) {
-            mFrameChain[mChainIdx].put(0, 0, frame);
-            mCameraFrameReady = true;
-            this.notify();
+        Mat[] chain = mFrameChain;
+        if (chain != null) {
+            int back = mBackIdx;
+            chain[back].put(0, 0, frame);
+            mFrameTimestamps[back] = System.nanoTime();
+            int previous = mMiddle.getAndSet(back | FRAME_FRESH);
+            if ((previous & FRAME_FRESH) != 0)
+                mDroppedFrames++;
+            mBackIdx = previous & FRAME_INDEX_MASK;
+            Thread worker = mThread;
+            if (worker != null)
+                LockSupport.unpark(worker);
         }
         if (mCamera != null)
             mCamera.addCallbackBuffer(mBuffer);
@@ -324,7 +378,7 @@ public class JavaCameraView extends CameraBridgeViewBase implements PreviewCallb
     private class JavaCameraFrame implements CvCameraViewFrame {
         @Override
         public Mat gray() {
-            return mYuvFrameData.submat(0, mHeight, 0, mWidth);
+            return mGray;
         }
 
         @Override
@@ -344,15 +398,18 @@ public class JavaCameraView extends CameraBridgeViewBase implements PreviewCallb
             mWidth = width;
             mHeight = height;
             mYuvFrameData = Yuv420sp;
+            mGray = Yuv420sp.submat(0, height, 0, width);
             mRgba = new Mat();
         }
 
         @Override
         public void release() {
+            mGray.release();
             mRgba.release();
         }
 
         private Mat mYuvFrameData;
+        private Mat mGray;
         private Mat mRgba;
         private int mWidth;
         private int mHeight;
@@ -363,26 +420,21 @@ public class JavaCameraView extends CameraBridgeViewBase implements PreviewCallb
         @Override
         public void run() {
             do {
-                boolean hasFrame = false;
-                synchronized (JavaCameraView.this) {
-                    try {
-                        while (!mCameraFrameReady && !mStopThread) {
-                            JavaCameraView.this.wait();
-                        }
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                    if (mCameraFrameReady)
-                    {
-                        mChainIdx = 1 - mChainIdx;
-                        mCameraFrameReady = false;
-                        hasFrame = true;
-                    }
+                if ((mMiddle.get() & FRAME_FRESH) == 0) {
+                    LockSupport.park(JavaCameraView.this);
+                    continue;
                 }
+                mFrontIdx = mMiddle.getAndSet(mFrontIdx) & FRAME_INDEX_MASK;
+
+                long latency = System.nanoTime() - mFrameTimestamps[mFrontIdx];
+                mHandoffLatencyTotalNs += latency;
+                if (latency > mHandoffLatencyMaxNs)
+                    mHandoffLatencyMaxNs = latency;
+                mDeliveredFrames++;
 
-                if (!mStopThread && hasFrame) {
-                    if (!mFrameChain[1 - mChainIdx].empty())
-                        deliverAndDrawFrame(mCameraFrame[1 - mChainIdx]);
+                if (!mStopThread && !mFrameChain[mFrontIdx].empty()) {
+                    mCameraFrame[mFrontIdx].invalidate();
+                    deliverAndDrawFrame(mCameraFrame[mFrontIdx]);
                 }
             } while (!mStopThread);
             Log.d(TAG, "Finish processing thread");
@@ -8,6 +8,19 @@ public class Mat {
 
     public final long nativeObj;
 
+    private volatile boolean released;
+    private Throwable allocationSite;
+    private MatMemoryAccounting.Entry accountingEntry;
+
+    // Runs for every constructor: hands the Mat to the thread's open MatScope, if any.
+    {
+        MatScope.track(this);
+        if (MatScope.isDebug())
+            allocationSite = new Throwable("Mat allocated here");
+        if (MatMemoryAccounting.isEnabled())
+            accountingEntry = MatMemoryAccounting.onCreate(this);
+    }
+
     public Mat(long addr) {
         if (addr == 0)
             throw new UnsupportedOperationException("Native object address is NULL");
@@ -537,6 +550,11 @@ public class Mat {
 
     // javadoc: Mat::release()
     public void release() {
+        released = true;
+        if (accountingEntry != null) {
+            MatMemoryAccounting.onRelease(accountingEntry);
+            accountingEntry = null;
+        }
         n_release(nativeObj);
     }
 
@@ -756,6 +774,10 @@ public class Mat {
 
     @Override
     protected void finalize() throws Throwable {
+        if (!released && MatScope.isDebug())
+            MatScope.reportFinalized(this, allocationSite);
+        if (accountingEntry != null)
+            MatMemoryAccounting.onFinalize(accountingEntry);
         n_delete(nativeObj);
         super.finalize();
     }
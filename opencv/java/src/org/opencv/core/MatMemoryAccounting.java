@@ -0,0 +1,194 @@
+package org.opencv.core;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opt-in accounting of the native memory held by Mats.
+ *
+ * When enabled, every Mat constructed afterwards is attributed to the tag of the innermost
+ * {@link MatScope} open on the creating thread (or {@link #UNTAGGED}). Live count, live bytes
+ * (rows * cols * elemSize, with ROI views counted as zero) and the high-water mark are kept per tag.
+ * Mats are filled by native code after construction, so byte counts are refreshed when a Mat is
+ * released, when a MatScope closes and on every {@link #snapshot()}.
+ *
+ * While disabled the cost per Mat is a single volatile read.
+ */
+public final class MatMemoryAccounting {
+
+    public static final String UNTAGGED = "untagged";
+
+    private static volatile boolean enabled;
+
+    private static final Object lock = new Object();
+    private static final Map<String, TagStats> stats = new LinkedHashMap<>();
+    private static final Set<Entry> live = new HashSet<>();
+    private static long totalLiveBytes;
+    private static long totalPeakBytes;
+
+    private MatMemoryAccounting() {
+    }
+
+    static final class Entry {
+        final WeakReference<Mat> mat;
+        final TagStats tag;
+        long bytes;
+
+        Entry(Mat mat, TagStats tag) {
+            this.mat = new WeakReference<>(mat);
+            this.tag = tag;
+        }
+    }
+
+    private static final class TagStats {
+        final String tag;
+        int liveCount;
+        long liveBytes;
+        long peakBytes;
+        long allocations;
+
+        TagStats(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public static final class TagSnapshot {
+        public final String tag;
+        public final int liveCount;
+        public final long liveBytes;
+        public final long peakBytes;
+        public final long allocations;
+
+        TagSnapshot(TagStats s) {
+            tag = s.tag;
+            liveCount = s.liveCount;
+            liveBytes = s.liveBytes;
+            peakBytes = s.peakBytes;
+            allocations = s.allocations;
+        }
+    }
+
+    public static final class Snapshot {
+        public final int liveCount;
+        public final long liveBytes;
+        public final long peakBytes;
+        public final List<TagSnapshot> tags;
+
+        Snapshot(int liveCount, long liveBytes, long peakBytes, List<TagSnapshot> tags) {
+            this.liveCount = liveCount;
+            this.liveBytes = liveBytes;
+            this.peakBytes = peakBytes;
+            this.tags = tags;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("live=").append(liveCount).append(" (").append(formatBytes(liveBytes))
+                    .append(") peak=").append(formatBytes(peakBytes));
+            for (TagSnapshot t : tags) {
+                sb.append(" | ").append(t.tag).append(": ").append(t.liveCount).append(" live, ")
+                        .append(formatBytes(t.liveBytes)).append(", peak ").append(formatBytes(t.peakBytes));
+            }
+            return sb.toString();
+        }
+    }
+
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Forgets all tracked Mats and resets every counter and high-water mark. */
+    public static void reset() {
+        synchronized (lock) {
+            live.clear();
+            stats.clear();
+            totalLiveBytes = 0;
+            totalPeakBytes = 0;
+        }
+    }
+
+    /** Refreshes the size of every tracked Mat and updates the high-water marks. */
+    public static void sample() {
+        synchronized (lock) {
+            for (Entry e : live) refresh(e);
+        }
+    }
+
+    public static Snapshot snapshot() {
+        synchronized (lock) {
+            for (Entry e : live) refresh(e);
+            List<TagSnapshot> tags = new ArrayList<>(stats.size());
+            for (TagStats s : stats.values()) tags.add(new TagSnapshot(s));
+            return new Snapshot(live.size(), totalLiveBytes, totalPeakBytes, Collections.unmodifiableList(tags));
+        }
+    }
+
+    static Entry onCreate(Mat mat) {
+        String tag = MatScope.currentTag();
+        if (tag == null) tag = UNTAGGED;
+        synchronized (lock) {
+            TagStats s = stats.get(tag);
+            if (s == null) {
+                s = new TagStats(tag);
+                stats.put(tag, s);
+            }
+            Entry e = new Entry(mat, s);
+            live.add(e);
+            s.liveCount++;
+            s.allocations++;
+            return e;
+        }
+    }
+
+    static void onRelease(Entry e) {
+        synchronized (lock) {
+            if (!live.remove(e)) return;
+            refresh(e);
+            untrack(e);
+        }
+    }
+
+    static void onFinalize(Entry e) {
+        synchronized (lock) {
+            if (live.remove(e)) untrack(e);
+        }
+    }
+
+    private static void untrack(Entry e) {
+        e.tag.liveCount--;
+        e.tag.liveBytes -= e.bytes;
+        totalLiveBytes -= e.bytes;
+        e.bytes = 0;
+    }
+
+    private static void refresh(Entry e) {
+        Mat mat = e.mat.get();
+        if (mat == null || mat.nativeObj == 0) return;
+        long bytes = mat.isSubmatrix() ? 0 : mat.total() * mat.elemSize();
+        long delta = bytes - e.bytes;
+        if (delta == 0) return;
+        e.bytes = bytes;
+        e.tag.liveBytes += delta;
+        totalLiveBytes += delta;
+        if (e.tag.liveBytes > e.tag.peakBytes) e.tag.peakBytes = e.tag.liveBytes;
+        if (totalLiveBytes > totalPeakBytes) totalPeakBytes = totalLiveBytes;
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
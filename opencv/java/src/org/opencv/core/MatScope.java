@@ -0,0 +1,153 @@
+package org.opencv.core;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deterministic owner for native Mat memory.
+ *
+ * While a scope is open on the current thread, every Mat created on that thread (including
+ * MatOfPoint, MatOfPoint2f and Mats returned from native calls) is registered with it, and all of
+ * them are released when the scope is closed:
+ *
+ * <pre>
+ * try (MatScope scope = MatScope.open()) {
+ *     Mat gray = new Mat();
+ *     Imgproc.cvtColor(src, gray, Imgproc.COLOR_RGBA2GRAY);
+ *     return scope.keep(gray.clone());
+ * }
+ * </pre>
+ *
+ * Mats that must outlive the scope are handed out with {@link #keep}. Scopes nest; a Mat belongs to
+ * the innermost open scope of the thread that created it.
+ *
+ * In debug mode Mat.finalize() reports every Mat whose native data was reclaimed by the finalizer
+ * instead of an explicit release() or a scope, together with the stack that allocated it.
+ */
+public final class MatScope implements AutoCloseable {
+
+    public interface LeakListener {
+        void onFinalizerReclaimed(String description, Throwable allocationSite);
+    }
+
+    private static final ThreadLocal<MatScope> current = new ThreadLocal<>();
+    // Lets Mat construction skip the ThreadLocal lookup entirely while no scope is open anywhere.
+    private static volatile int openScopes;
+    private static volatile boolean debug;
+    private static volatile LeakListener leakListener;
+    private static final AtomicLong finalizerReclaimed = new AtomicLong();
+
+    private final MatScope parent;
+    private final Thread owner;
+    private final String tag;
+    private final ArrayList<Mat> mats = new ArrayList<>();
+    private boolean closed;
+
+    private MatScope(String tag) {
+        this.owner = Thread.currentThread();
+        this.parent = current.get();
+        this.tag = tag != null ? tag : (parent != null ? parent.tag : null);
+    }
+
+    public static MatScope open() {
+        return open(null);
+    }
+
+    /** Opens a scope with a tag, used to attribute allocations in diagnostics. */
+    public static MatScope open(String tag) {
+        MatScope scope = new MatScope(tag);
+        current.set(scope);
+        synchronized (MatScope.class) {
+            openScopes++;
+        }
+        return scope;
+    }
+
+    /** Tag of the innermost scope open on the calling thread, or null. */
+    public static String currentTag() {
+        if (openScopes == 0) return null;
+        MatScope scope = current.get();
+        return scope != null ? scope.tag : null;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public int size() {
+        return mats.size();
+    }
+
+    /**
+     * Lets {@code mat} survive close(). It moves to the enclosing scope if there is one; otherwise
+     * the caller becomes responsible for releasing it.
+     */
+    public <T extends Mat> T keep(T mat) {
+        for (int i = mats.size() - 1; i >= 0; i--) {
+            if (mats.get(i) == mat) {
+                mats.remove(i);
+                if (parent != null) parent.mats.add(mat);
+                break;
+            }
+        }
+        return mat;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        if (Thread.currentThread() != owner)
+            throw new IllegalStateException("MatScope must be closed on the thread that opened it");
+        closed = true;
+
+        // Closing an outer scope first also closes any inner scope that was left open.
+        MatScope top = current.get();
+        while (top != null && top != this) {
+            top.close();
+            top = current.get();
+        }
+        current.set(parent);
+        synchronized (MatScope.class) {
+            openScopes--;
+        }
+
+        // Sizes are sampled before anything is released so the scope's peak is on record.
+        if (MatMemoryAccounting.isEnabled()) MatMemoryAccounting.sample();
+        for (int i = mats.size() - 1; i >= 0; i--) {
+            Mat mat = mats.get(i);
+            if (mat.nativeObj != 0) mat.release();
+        }
+        mats.clear();
+    }
+
+    public static void setDebug(boolean enabled) {
+        debug = enabled;
+    }
+
+    public static boolean isDebug() {
+        return debug;
+    }
+
+    public static void setLeakListener(LeakListener listener) {
+        leakListener = listener;
+    }
+
+    /** Number of Mats the finalizer had to reclaim while debug mode was on. */
+    public static long getFinalizerReclaimedCount() {
+        return finalizerReclaimed.get();
+    }
+
+    static void track(Mat mat) {
+        if (openScopes == 0) return;
+        MatScope scope = current.get();
+        if (scope != null) scope.mats.add(mat);
+    }
+
+    static void reportFinalized(Mat mat, Throwable allocationSite) {
+        finalizerReclaimed.incrementAndGet();
+        LeakListener listener = leakListener;
+        if (listener != null) {
+            listener.onFinalizerReclaimed("Mat 0x" + Long.toHexString(mat.nativeObj) + " reclaimed by finalizer", allocationSite);
+        }
+    }
+}
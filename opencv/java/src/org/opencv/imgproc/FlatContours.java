@@ -0,0 +1,377 @@
+package org.opencv.imgproc;
+
+import java.util.Arrays;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+
+/**
+ * All contours of one findContours call stored in a single flat array.
+ *
+ * The points of contour i are points[2 * k], points[2 * k + 1] for
+ * offsets[i] &lt;= k &lt; offsets[i + 1]. Shape helpers work directly on those index ranges, so
+ * filtering and measuring thousands of small contours creates no MatOfPoint objects and makes no
+ * further native calls.
+ *
+ * @see Imgproc#findContoursFlat(Mat, Mat, int, int)
+ */
+public final class FlatContours {
+
+    private static final double FLT_EPSILON = 1.1920928955078125e-7;
+
+    private final int[] points;
+    private final int[] offsets;
+
+    public FlatContours(int[] points, int[] offsets) {
+        this.points = points;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Unpacks a native vector_vector_Point (a CV_32SC2 column of Mat addresses) and releases the
+     * per-contour Mats as it goes.
+     */
+    static FlatContours fromVectorMat(Mat m) {
+        int count = m.rows();
+        if (count == 0)
+            return new FlatContours(new int[0], new int[1]);
+        if (CvType.CV_32SC2 != m.type() || m.cols() != 1)
+            throw new IllegalArgumentException(
+                    "CvType.CV_32SC2 != m.type() ||  m.cols()!=1\n" + m);
+
+        int[] addrs = new int[count * 2];
+        m.get(0, 0, addrs);
+        int[] offsets = new int[count + 1];
+        int[] points = new int[Math.max(64, count * 16)];
+        // Mat.get copies at most the elements the Mat holds, so one scratch buffer serves all contours.
+        int[] scratch = new int[256];
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            long addr = (((long) addrs[i * 2]) << 32) | (((long) addrs[i * 2 + 1]) & 0xffffffffL);
+            Mat contour = new Mat(addr);
+            int n = contour.rows();
+            if (n > 0) {
+                if ((total + n) * 2 > points.length)
+                    points = Arrays.copyOf(points, Math.max(points.length * 2, (total + n) * 2));
+                if (n * 2 > scratch.length)
+                    scratch = new int[Math.max(scratch.length * 2, n * 2)];
+                contour.get(0, 0, scratch);
+                System.arraycopy(scratch, 0, points, total * 2, n * 2);
+                total += n;
+            }
+            contour.release();
+            offsets[i + 1] = total;
+        }
+        return new FlatContours(Arrays.copyOf(points, total * 2), offsets);
+    }
+
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    public int pointCount(int contour) {
+        return offsets[contour + 1] - offsets[contour];
+    }
+
+    public int x(int contour, int k) {
+        return points[2 * (offsets[contour] + k)];
+    }
+
+    public int y(int contour, int k) {
+        return points[2 * (offsets[contour] + k) + 1];
+    }
+
+    /** Backing array of packed x, y pairs; do not modify. */
+    public int[] points() {
+        return points;
+    }
+
+    /** Backing array of per-contour start indices (in points, not ints); do not modify. */
+    public int[] offsets() {
+        return offsets;
+    }
+
+    public Point[] toArray(int contour) {
+        Point[] result = new Point[pointCount(contour)];
+        for (int k = 0; k < result.length; k++)
+            result[k] = new Point(x(contour, k), y(contour, k));
+        return result;
+    }
+
+    /** Unsigned polygon area, as {@link Imgproc#contourArea(Mat)}. */
+    public double area(int contour) {
+        int from = offsets[contour];
+        int to = offsets[contour + 1];
+        if (to - from < 3)
+            return 0;
+        long twiceArea = 0;
+        int px = points[2 * (to - 1)];
+        int py = points[2 * (to - 1) + 1];
+        for (int k = from; k < to; k++) {
+            int cx = points[2 * k];
+            int cy = points[2 * k + 1];
+            twiceArea += (long) px * cy - (long) cx * py;
+            px = cx;
+            py = cy;
+        }
+        return Math.abs(twiceArea) * 0.5;
+    }
+
+    /**
+     * Perimeter or curve length, as {@link Imgproc#arcLength}. Each segment is measured in float
+     * precision, as the native code does, so the results are identical.
+     */
+    public double arcLength(int contour, boolean closed) {
+        int from = offsets[contour];
+        int to = offsets[contour + 1];
+        if (to - from < 2)
+            return 0;
+        double length = 0;
+        int start = closed ? to - 1 : from;
+        float px = points[2 * start];
+        float py = points[2 * start + 1];
+        for (int k = closed ? from : from + 1; k < to; k++) {
+            float cx = points[2 * k];
+            float cy = points[2 * k + 1];
+            float dx = cx - px;
+            float dy = cy - py;
+            length += (float) Math.sqrt(dx * dx + dy * dy);
+            px = cx;
+            py = cy;
+        }
+        return length;
+    }
+
+    /** Spatial, central and normalized moments of the polygon, as {@link Imgproc#moments(Mat)}. */
+    public Moments moments(int contour) {
+        int from = offsets[contour];
+        int to = offsets[contour + 1];
+        if (to - from == 0)
+            return new Moments();
+
+        double a00 = 0, a10 = 0, a01 = 0, a20 = 0, a11 = 0, a02 = 0, a30 = 0, a21 = 0, a12 = 0, a03 = 0;
+        double xi1 = points[2 * (to - 1)];
+        double yi1 = points[2 * (to - 1) + 1];
+        double xi12 = xi1 * xi1;
+        double yi12 = yi1 * yi1;
+        for (int k = from; k < to; k++) {
+            double xi = points[2 * k];
+            double yi = points[2 * k + 1];
+            double xi2 = xi * xi;
+            double yi2 = yi * yi;
+            double dxy = xi1 * yi - xi * yi1;
+            double xii1 = xi1 + xi;
+            double yii1 = yi1 + yi;
+
+            a00 += dxy;
+            a10 += dxy * xii1;
+            a01 += dxy * yii1;
+            a20 += dxy * (xi1 * xii1 + xi2);
+            a11 += dxy * (xi1 * (yii1 + yi1) + xi * (yii1 + yi));
+            a02 += dxy * (yi1 * yii1 + yi2);
+            a30 += dxy * xii1 * (xi12 + xi2);
+            a03 += dxy * yii1 * (yi12 + yi2);
+            a21 += dxy * (xi12 * (3 * yi1 + yi) + 2 * xi * xi1 * yii1 + xi2 * (yi1 + 3 * yi));
+            a12 += dxy * (yi12 * (3 * xi1 + xi) + 2 * yi * yi1 * xii1 + yi2 * (xi1 + 3 * xi));
+
+            xi1 = xi;
+            yi1 = yi;
+            xi12 = xi2;
+            yi12 = yi2;
+        }
+        // Same cut-off (FLT_EPSILON) and scale factors as the native contourMoments.
+        if (Math.abs(a00) <= FLT_EPSILON)
+            return new Moments();
+
+        // Orientation of the contour must not change the sign of the result.
+        double sign = a00 > 0 ? 1 : -1;
+        return new Moments(
+                a00 * (sign * 0.5), a10 * (sign / 6), a01 * (sign / 6),
+                a20 * (sign / 12), a11 * (sign / 24), a02 * (sign / 12),
+                a30 * (sign * 0.05), a21 * (sign / 60), a12 * (sign / 60), a03 * (sign * 0.05));
+    }
+
+    /**
+     * Douglas-Peucker simplification, a port of the native approxPolyDP that gives the same
+     * vertices: a closed curve is split at a pair of roughly farthest points found by three
+     * farthest-point sweeps, and a final pass drops vertices within epsilon / sqrt(2) of the
+     * line through their neighbours when that line is neither horizontal nor vertical. Returns
+     * the kept vertices as packed x, y pairs in the order the native call returns them.
+     */
+    public int[] approxPolyDP(int contour, double epsilon, boolean closed) {
+        int from = offsets[contour];
+        int count = offsets[contour + 1] - from;
+        if (count == 0)
+            return new int[0];
+
+        int[] dst = new int[2 * count];
+        int newCount = 0;
+        double eps = epsilon * epsilon;
+        boolean isClosed = closed;
+        int initIters = 3;
+        // Pending slices as (start, end) index pairs.
+        int[] stack = new int[32];
+        int top = 0;
+        int sliceStart = 0;
+        int sliceEnd = 0;
+        int rightStart = 0;
+        int rightEnd;
+        int startX = -1000000;
+        int startY = -1000000;
+        int pos = 0;
+        boolean leEps = false;
+
+        if (!isClosed) {
+            if (x(contour, 0) != x(contour, count - 1) || y(contour, 0) != y(contour, count - 1)) {
+                stack[top++] = 0;
+                stack[top++] = count - 1;
+            } else {
+                isClosed = true;
+                initIters = 1;
+            }
+        }
+
+        if (isClosed) {
+            // 1. Find approximately two farthest points of the contour.
+            for (int i = 0; i < initIters; i++) {
+                double maxDist = 0;
+                pos = (pos + rightStart) % count;
+                startX = x(contour, pos);
+                startY = y(contour, pos);
+                pos = (pos + 1) % count;
+                for (int j = 1; j < count; j++) {
+                    double dx = x(contour, pos) - startX;
+                    double dy = y(contour, pos) - startY;
+                    pos = (pos + 1) % count;
+                    double dist = dx * dx + dy * dy;
+                    if (dist > maxDist) {
+                        maxDist = dist;
+                        rightStart = j;
+                    }
+                }
+                leEps = maxDist <= eps;
+            }
+
+            // 2. Initialize the stack.
+            if (!leEps) {
+                rightEnd = sliceStart = pos % count;
+                sliceEnd = rightStart = (rightStart + sliceStart) % count;
+                stack = push(stack, top, rightStart, rightEnd);
+                top += 2;
+                stack = push(stack, top, sliceStart, sliceEnd);
+                top += 2;
+            } else {
+                dst[2 * newCount] = startX;
+                dst[2 * newCount + 1] = startY;
+                newCount++;
+            }
+        }
+
+        // 3. Split slices until every one is within epsilon of its chord.
+        while (top > 0) {
+            sliceEnd = stack[--top];
+            sliceStart = stack[--top];
+            int endX = x(contour, sliceEnd);
+            int endY = y(contour, sliceEnd);
+            pos = sliceStart;
+            startX = x(contour, pos);
+            startY = y(contour, pos);
+            pos = (pos + 1) % count;
+
+            if (pos != sliceEnd) {
+                double dx = endX - startX;
+                double dy = endY - startY;
+                double maxDist = 0;
+                while (pos != sliceEnd) {
+                    int px = x(contour, pos);
+                    int py = y(contour, pos);
+                    pos = (pos + 1) % count;
+                    double dist = Math.abs((py - startY) * dx - (px - startX) * dy);
+                    if (dist > maxDist) {
+                        maxDist = dist;
+                        rightStart = (pos + count - 1) % count;
+                    }
+                }
+                leEps = maxDist * maxDist <= eps * (dx * dx + dy * dy);
+            } else {
+                leEps = true;
+            }
+
+            if (leEps) {
+                dst[2 * newCount] = startX;
+                dst[2 * newCount + 1] = startY;
+                newCount++;
+            } else {
+                rightEnd = sliceEnd;
+                sliceEnd = rightStart;
+                stack = push(stack, top, rightStart, rightEnd);
+                top += 2;
+                stack = push(stack, top, sliceStart, sliceEnd);
+                top += 2;
+            }
+        }
+
+        if (!isClosed) {
+            dst[2 * newCount] = x(contour, count - 1);
+            dst[2 * newCount + 1] = y(contour, count - 1);
+            newCount++;
+        }
+
+        // 4. Remove extra points on almost straight lines.
+        isClosed = closed;
+        count = newCount;
+        int open = isClosed ? 0 : 1;
+        pos = isClosed ? count - 1 : 0;
+        startX = dst[2 * pos];
+        startY = dst[2 * pos + 1];
+        pos = (pos + 1) % count;
+        int wpos = pos;
+        int ptX = dst[2 * pos];
+        int ptY = dst[2 * pos + 1];
+        pos = (pos + 1) % count;
+
+        for (int i = open; i < count - open && newCount > 2; i++) {
+            int endX = dst[2 * pos];
+            int endY = dst[2 * pos + 1];
+            pos = (pos + 1) % count;
+
+            double dx = endX - startX;
+            double dy = endY - startY;
+            double dist = Math.abs((ptX - startX) * dy - (ptY - startY) * dx);
+            double successiveInnerProduct = (double) (ptX - startX) * (endX - ptX) + (double) (ptY - startY) * (endY - ptY);
+
+            if (dist * dist <= 0.5 * eps * (dx * dx + dy * dy) && dx != 0 && dy != 0
+                    && successiveInnerProduct >= 0) {
+                newCount--;
+                dst[2 * wpos] = startX = endX;
+                dst[2 * wpos + 1] = startY = endY;
+                wpos = (wpos + 1) % count;
+                ptX = dst[2 * pos];
+                ptY = dst[2 * pos + 1];
+                pos = (pos + 1) % count;
+                i++;
+                continue;
+            }
+            dst[2 * wpos] = startX = ptX;
+            dst[2 * wpos + 1] = startY = ptY;
+            wpos = (wpos + 1) % count;
+            ptX = endX;
+            ptY = endY;
+        }
+
+        if (!isClosed) {
+            dst[2 * wpos] = ptX;
+            dst[2 * wpos + 1] = ptY;
+        }
+        return Arrays.copyOf(dst, 2 * newCount);
+    }
+
+    private static int[] push(int[] stack, int top, int start, int end) {
+        if (top + 2 > stack.length)
+            stack = Arrays.copyOf(stack, stack.length * 3 / 2 + 2);
+        stack[top] = start;
+        stack[top + 1] = end;
+        return stack;
+    }
+}
@@ -7867,6 +7867,24 @@ public class Imgproc {
     }
 
 
+    /**
+     * Same as {@link #findContours(Mat, List, Mat, int, int)}, but returns every contour in one
+     * {@link FlatContours} instead of one MatOfPoint per contour.
+     * @param image Source, an 8-bit single-channel image.
+     * @param hierarchy Optional output vector, as in findContours.
+     * @param mode Contour retrieval mode, see #RetrievalModes
+     * @param method Contour approximation method, see #ContourApproximationModes
+     * @return all contours, packed
+     */
+    public static FlatContours findContoursFlat(Mat image, Mat hierarchy, int mode, int method) {
+        Mat contours_mat = new Mat();
+        findContours_1(image.nativeObj, contours_mat.nativeObj, hierarchy.nativeObj, mode, method);
+        FlatContours contours = FlatContours.fromVectorMat(contours_mat);
+        contours_mat.release();
+        return contours;
+    }
+
+
     //
     // C++:  void cv::findContoursLinkRuns(Mat image, vector_Mat& contours, Mat& hierarchy)
     //
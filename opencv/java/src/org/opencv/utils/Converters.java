@@ -1,6 +1,9 @@
 package org.opencv.utils;
 
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.opencv.core.CvType;
@@ -84,6 +87,58 @@ public class Converters {
         return res;
     }
 
+    public static Mat vector_Point_to_Mat(double[] xy) {
+        return vector_Point_to_Mat(xy, CvType.CV_32S);
+    }
+
+    public static Mat vector_Point2f_to_Mat(double[] xy) {
+        return vector_Point_to_Mat(xy, CvType.CV_32F);
+    }
+
+    public static Mat vector_Point2d_to_Mat(double[] xy) {
+        return vector_Point_to_Mat(xy, CvType.CV_64F);
+    }
+
+    /**
+     * Same as {@link #vector_Point_to_Mat(List, int)} for points packed as x0, y0, x1, y1, ...
+     * without allocating a Point per element.
+     */
+    public static Mat vector_Point_to_Mat(double[] xy, int typeDepth) {
+        int count = (xy != null) ? xy.length / 2 : 0;
+        if (count == 0)
+            return new Mat();
+        Mat res;
+        switch (typeDepth) {
+        case CvType.CV_32S: {
+            res = new Mat(count, 1, CvType.CV_32SC2);
+            int[] buff = new int[count * 2];
+            for (int i = 0; i < count * 2; i++)
+                buff[i] = (int) xy[i];
+            res.put(0, 0, buff);
+        }
+            break;
+
+        case CvType.CV_32F: {
+            res = new Mat(count, 1, CvType.CV_32FC2);
+            float[] buff = new float[count * 2];
+            for (int i = 0; i < count * 2; i++)
+                buff[i] = (float) xy[i];
+            res.put(0, 0, buff);
+        }
+            break;
+
+        case CvType.CV_64F: {
+            res = new Mat(count, 1, CvType.CV_64FC2);
+            res.put(0, 0, xy.length == count * 2 ? xy : Arrays.copyOf(xy, count * 2));
+        }
+            break;
+
+        default:
+            throw new IllegalArgumentException("'typeDepth' can be CV_32S, CV_32F or CV_64F");
+        }
+        return res;
+    }
+
     public static Mat vector_Point3i_to_Mat(List<Point3> pts) {
         return vector_Point3_to_Mat(pts, CvType.CV_32S);
     }
@@ -157,6 +212,36 @@ public class Converters {
         Mat_to_vector_Point(m, pts);
     }
 
+    /**
+     * Same as {@link #Mat_to_vector_Point(Mat, List)} but returns the points packed as
+     * x0, y0, x1, y1, ... without allocating a Point per element.
+     */
+    public static double[] Mat_to_vector_Point(Mat m) {
+        int count = m.rows();
+        int type = m.type();
+        if (m.cols() != 1)
+            throw new IllegalArgumentException("Input Mat should have one column\n" + m);
+
+        double[] xy = new double[2 * count];
+        if (type == CvType.CV_32SC2) {
+            int[] buff = new int[2 * count];
+            m.get(0, 0, buff);
+            for (int i = 0; i < 2 * count; i++)
+                xy[i] = buff[i];
+        } else if (type == CvType.CV_32FC2) {
+            float[] buff = new float[2 * count];
+            m.get(0, 0, buff);
+            for (int i = 0; i < 2 * count; i++)
+                xy[i] = buff[i];
+        } else if (type == CvType.CV_64FC2) {
+            m.get(0, 0, xy);
+        } else {
+            throw new IllegalArgumentException(
+                    "Input Mat should be of CV_32SC2, CV_32FC2 or CV_64FC2 type\n" + m);
+        }
+        return xy;
+    }
+
     public static void Mat_to_vector_Point(Mat m, List<Point> pts) {
         if (pts == null)
             throw new IllegalArgumentException("Output List can't be null");
@@ -270,6 +355,25 @@ public class Converters {
         }
     }
 
+    public static Mat vector_float_to_Mat(float[] fs) {
+        if (fs == null || fs.length == 0)
+            return new Mat();
+        Mat res = new Mat(fs.length, 1, CvType.CV_32FC1);
+        res.put(0, 0, fs);
+        return res;
+    }
+
+    /** Copies the remaining elements of {@code fs}; the buffer's position is left unchanged. */
+    public static Mat vector_float_to_Mat(FloatBuffer fs) {
+        if (fs == null || !fs.hasRemaining())
+            return new Mat();
+        if (fs.hasArray() && fs.arrayOffset() + fs.position() == 0 && fs.remaining() == fs.array().length)
+            return vector_float_to_Mat(fs.array());
+        float[] buff = new float[fs.remaining()];
+        fs.duplicate().get(buff);
+        return vector_float_to_Mat(buff);
+    }
+
     public static Mat vector_float_to_Mat(List<Float> fs) {
         Mat res;
         int count = (fs != null) ? fs.size() : 0;
@@ -287,19 +391,32 @@ public class Converters {
         return res;
     }
 
-    public static void Mat_to_vector_float(Mat m, List<Float> fs) {
-        if (fs == null)
-            throw new IllegalArgumentException("fs == null");
+    public static float[] Mat_to_vector_float(Mat m) {
         int count = m.rows();
         if (CvType.CV_32FC1 != m.type() || m.cols() != 1)
             throw new IllegalArgumentException(
                     "CvType.CV_32FC1 != m.type() ||  m.cols()!=1\n" + m);
 
-        fs.clear();
         float[] buff = new float[count];
         m.get(0, 0, buff);
-        for (int i = 0; i < count; i++) {
-            fs.add(buff[i]);
+        return buff;
+    }
+
+    /** Writes the Mat's elements at the buffer's position and advances it. */
+    public static void Mat_to_vector_float(Mat m, FloatBuffer fs) {
+        if (fs == null)
+            throw new IllegalArgumentException("fs == null");
+        fs.put(Mat_to_vector_float(m));
+    }
+
+    public static void Mat_to_vector_float(Mat m, List<Float> fs) {
+        if (fs == null)
+            throw new IllegalArgumentException("fs == null");
+        float[] buff = Mat_to_vector_float(m);
+
+        fs.clear();
+        for (float f : buff) {
+            fs.add(f);
         }
     }
 
@@ -353,6 +470,25 @@ public class Converters {
         return res;
     }
 
+    public static Mat vector_int_to_Mat(int[] is) {
+        if (is == null || is.length == 0)
+            return new Mat();
+        Mat res = new Mat(is.length, 1, CvType.CV_32SC1);
+        res.put(0, 0, is);
+        return res;
+    }
+
+    /** Copies the remaining elements of {@code is}; the buffer's position is left unchanged. */
+    public static Mat vector_int_to_Mat(IntBuffer is) {
+        if (is == null || !is.hasRemaining())
+            return new Mat();
+        if (is.hasArray() && is.arrayOffset() + is.position() == 0 && is.remaining() == is.array().length)
+            return vector_int_to_Mat(is.array());
+        int[] buff = new int[is.remaining()];
+        is.duplicate().get(buff);
+        return vector_int_to_Mat(buff);
+    }
+
     public static Mat vector_int_to_Mat(List<Integer> is) {
         Mat res;
         int count = (is != null) ? is.size() : 0;
@@ -370,19 +506,32 @@ public class Converters {
         return res;
     }
 
-    public static void Mat_to_vector_int(Mat m, List<Integer> is) {
-        if (is == null)
-            throw new IllegalArgumentException("is == null");
+    public static int[] Mat_to_vector_int(Mat m) {
         int count = m.rows();
         if (CvType.CV_32SC1 != m.type() || m.cols() != 1)
             throw new IllegalArgumentException(
                     "CvType.CV_32SC1 != m.type() ||  m.cols()!=1\n" + m);
 
-        is.clear();
         int[] buff = new int[count];
         m.get(0, 0, buff);
-        for (int i = 0; i < count; i++) {
-            is.add(buff[i]);
+        return buff;
+    }
+
+    /** Writes the Mat's elements at the buffer's position and advances it. */
+    public static void Mat_to_vector_int(Mat m, IntBuffer is) {
+        if (is == null)
+            throw new IllegalArgumentException("is == null");
+        is.put(Mat_to_vector_int(m));
+    }
+
+    public static void Mat_to_vector_int(Mat m, List<Integer> is) {
+        if (is == null)
+            throw new IllegalArgumentException("is == null");
+        int[] buff = Mat_to_vector_int(m);
+
+        is.clear();
+        for (int v : buff) {
+            is.add(v);
         }
     }
 
@@ -636,6 +785,14 @@ public class Converters {
         mats.clear();
     }
 
+    public static Mat vector_double_to_Mat(double[] ds) {
+        if (ds == null || ds.length == 0)
+            return new Mat();
+        Mat res = new Mat(ds.length, 1, CvType.CV_64FC1);
+        res.put(0, 0, ds);
+        return res;
+    }
+
     public static Mat vector_double_to_Mat(List<Double> ds) {
         Mat res;
         int count = (ds != null) ? ds.size() : 0;
@@ -653,19 +810,25 @@ public class Converters {
         return res;
     }
 
-    public static void Mat_to_vector_double(Mat m, List<Double> ds) {
-        if (ds == null)
-            throw new IllegalArgumentException("ds == null");
+    public static double[] Mat_to_vector_double(Mat m) {
         int count = m.rows();
         if (CvType.CV_64FC1 != m.type() || m.cols() != 1)
             throw new IllegalArgumentException(
                     "CvType.CV_64FC1 != m.type() ||  m.cols()!=1\n" + m);
 
-        ds.clear();
         double[] buff = new double[count];
         m.get(0, 0, buff);
-        for (int i = 0; i < count; i++) {
-            ds.add(buff[i]);
+        return buff;
+    }
+
+    public static void Mat_to_vector_double(Mat m, List<Double> ds) {
+        if (ds == null)
+            throw new IllegalArgumentException("ds == null");
+        double[] buff = Mat_to_vector_double(m);
+
+        ds.clear();
+        for (double v : buff) {
+            ds.add(v);
         }
     }
 
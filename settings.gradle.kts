@@ -22,3 +22,4 @@ dependencyResolutionManagement {
 rootProject.name = "RobotMaze"
 include(":app")
 include(":opencv")
+include(":benchmark")